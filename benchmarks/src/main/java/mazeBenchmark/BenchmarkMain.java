@@ -0,0 +1,41 @@
+package mazeBenchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Runs the benchmarks like the JMH main class, with the GC profiler always on, so every
+ * result comes with its allocation rate (gc.alloc.rate.norm, bytes per operation).
+ *
+ * Takes the JMH command line options, e.g. "SolverBenchmark -p size=1000 -rf json".
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		boolean hasGc = false;
+		for (ProfilerConfig profiler : commandLine.getProfilers())
+			if (profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()))
+				hasGc = true;
+		if (!hasGc)
+			options.addProfiler(GCProfiler.class);
+
+		Runner runner = new Runner(options.build());
+		if (commandLine.shouldList()) {
+			runner.list();
+			return;
+		}
+		runner.run();
+	} // end of main()
+
+} // end of class BenchmarkMain
@@ -0,0 +1,79 @@
+package mazeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze.FastRandom;
+import maze.Maze;
+import mazeGenerator.MazeGenerator;
+
+/**
+ * Time to generate a maze, for every generator and the maze types it supports.
+ *
+ * A new maze with all walls up is built before every call, outside the measured time.
+ *
+ * AldousBroderGenerator is left out of every maze type: its random walk takes far too long
+ * on the largest size, and WilsonGenerator stands for the uniform generators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class GeneratorBenchmark {
+
+	@Param({
+		"normal:RecursiveBacktrackerGenerator", "normal:ModifiedPrimsGenerator", "normal:GrowingTreeGenerator",
+		"normal:ParallelTileGenerator", "normal:KruskalGenerator", "normal:WilsonGenerator",
+		"normal:EllerGenerator",
+		"tunnel:RecursiveBacktrackerGenerator", "tunnel:GrowingTreeGenerator", "tunnel:KruskalGenerator",
+		"tunnel:WilsonGenerator",
+		"hex:RecursiveBacktrackerGenerator", "hex:ModifiedPrimsGenerator", "hex:GrowingTreeGenerator",
+		"hex:ParallelTileGenerator", "hex:KruskalGenerator", "hex:WilsonGenerator",
+		"compact:RecursiveBacktrackerGenerator", "compact:ModifiedPrimsGenerator", "compact:GrowingTreeGenerator",
+		"compact:ParallelTileGenerator", "compact:KruskalGenerator", "compact:WilsonGenerator",
+		"compact:EllerGenerator"})
+	public String generator;
+
+	@Param({"100", "1000", "4000"})
+	public int size;
+
+	private MazeGenerator mazeGen;
+	private Maze maze;
+	private FastRandom random;
+	private long seed;
+
+
+	@Setup(Level.Trial)
+	public void setUpTrial() throws ReflectiveOperationException {
+		mazeGen = (MazeGenerator) Mazes.implementation("mazeGenerator", generator).getConstructor().newInstance();
+	} // end of setUpTrial()
+
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		maze = Mazes.create(Mazes.type(generator), size);
+		random = new FastRandom(seed++);
+	} // end of setUpInvocation()
+
+
+	@Benchmark
+	public Maze generate() {
+		mazeGen.generateMaze(maze, random);
+		return maze;
+	} // end of generate()
+
+} // end of class GeneratorBenchmark
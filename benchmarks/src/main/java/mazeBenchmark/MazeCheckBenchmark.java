@@ -0,0 +1,71 @@
+package mazeBenchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze.Maze;
+import mazeSolver.BreadthFirstSolver;
+
+/**
+ * Time of Maze.isPerfect() and Maze.validate() for every maze type.
+ *
+ * Every trial checks the same perfect maze, generated by the recursive backtracker and
+ * solved by BreadthFirstSolver, so validate() has footprints to check. The messages of
+ * validate() go to a stream dropping them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class MazeCheckBenchmark {
+
+	@Param({"normal", "tunnel", "hex", "compact"})
+	public String type;
+
+	@Param({"100", "1000", "4000"})
+	public int size;
+
+	private final static PrintStream NO_OUTPUT = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+	});
+
+	private Maze maze;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		maze = Mazes.generate(type, size);
+		new BreadthFirstSolver().solveMaze(maze);
+	} // end of setUp()
+
+
+	@Benchmark
+	public boolean isPerfect() {
+		return maze.isPerfect();
+	} // end of isPerfect()
+
+
+	@Benchmark
+	public boolean validate() {
+		return maze.validate(NO_OUTPUT);
+	} // end of validate()
+
+} // end of class MazeCheckBenchmark
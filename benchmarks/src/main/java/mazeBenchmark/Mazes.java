@@ -0,0 +1,101 @@
+package mazeBenchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import maze.CompactNormalMaze;
+import maze.FastRandom;
+import maze.HexMaze;
+import maze.Maze;
+import maze.NormalMaze;
+import maze.TunnelMaze;
+import mazeGenerator.RecursiveBacktrackerGenerator;
+
+/**
+ * Mazes and implementations shared by the benchmarks.
+ */
+final class Mazes {
+
+	/**
+	 * Number of tunnels of a tunnel maze.
+	 */
+	static final int NUM_TUNNELS = 10;
+
+	private Mazes() {
+	} // end of Mazes()
+
+
+	/**
+	 * Construct a maze with all walls up, entrance at (0, 0) and exit at (size - 1, size - 1).
+	 * @param type normal, tunnel, hex or compact.
+	 * @param size Number of rows and columns.
+	 */
+	static Maze create(String type, int size) {
+		Maze maze;
+		List<int[]> tunnelList = new ArrayList<int[]>();
+		switch (type) {
+		case "normal":
+			maze = new NormalMaze();
+			break;
+		case "tunnel":
+			maze = new TunnelMaze();
+			// tunnels between random cells, the same for every run
+			Random random = new Random(size);
+			Set<Integer> used = new HashSet<>();
+			used.add(0);
+			used.add(size * size - 1);
+			while (tunnelList.size() < NUM_TUNNELS) {
+				int a = random.nextInt(size * size);
+				int b = random.nextInt(size * size);
+				if (a != b && used.add(a) && used.add(b))
+					tunnelList.add(new int[] {a / size, a % size, b / size, b % size});
+			}
+			break;
+		case "hex":
+			maze = new HexMaze();
+			break;
+		case "compact":
+			maze = new CompactNormalMaze();
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown maze type " + type);
+		}
+		maze.isVisu = false;
+		maze.initMaze(size, size, 0, 0, size - 1, size - 1, tunnelList);
+		return maze;
+	} // end of create()
+
+
+	/**
+	 * Construct and generate a perfect maze, the same for every run.
+	 */
+	static Maze generate(String type, int size) {
+		Maze maze = create(type, size);
+		new RecursiveBacktrackerGenerator(true).generateMaze(maze, new FastRandom(size));
+		return maze;
+	} // end of generate()
+
+
+	/**
+	 * Maze type of a "type:ClassName" benchmark parameter.
+	 */
+	static String type(String param) {
+		return param.substring(0, param.indexOf(':'));
+	} // end of type()
+
+
+	/**
+	 * Class of a "type:ClassName" benchmark parameter, in the given package.
+	 */
+	static Class<?> implementation(String packageName, String param) {
+		try {
+			return Class.forName(packageName + "." + param.substring(param.indexOf(':') + 1));
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException("Unknown implementation " + param, e);
+		}
+	} // end of implementation()
+
+} // end of class Mazes
@@ -0,0 +1,71 @@
+package mazeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze.Maze;
+import mazeSolver.MazeSolver;
+
+/**
+ * Time to solve a maze, for every solver and the maze types it supports.
+ *
+ * Every trial solves the same perfect maze, generated by the recursive backtracker, with one
+ * solver constructed for the trial and reused by every call, so the warm-up grows its scratch
+ * and the measured calls are steady-state solves.
+ * WallFollowerSolver is left out of tunnel mazes, where it may not find the exit, and the
+ * solvers working on Cell objects are left out of compact mazes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class SolverBenchmark {
+
+	@Param({
+		"normal:WallFollowerSolver", "normal:BiDirectionalRecursiveBacktrackerSolver", "normal:BreadthFirstSolver",
+		"normal:AStarSolver", "normal:BiDirectionalBreadthFirstSolver", "normal:DeadEndFillingSolver",
+		"tunnel:BiDirectionalRecursiveBacktrackerSolver", "tunnel:BreadthFirstSolver",
+		"tunnel:AStarSolver", "tunnel:BiDirectionalBreadthFirstSolver", "tunnel:DeadEndFillingSolver",
+		"hex:WallFollowerSolver", "hex:BiDirectionalRecursiveBacktrackerSolver", "hex:BreadthFirstSolver",
+		"hex:AStarSolver", "hex:BiDirectionalBreadthFirstSolver", "hex:DeadEndFillingSolver",
+		"compact:BreadthFirstSolver", "compact:AStarSolver", "compact:BiDirectionalBreadthFirstSolver",
+		"compact:DeadEndFillingSolver"})
+	public String solver;
+
+	@Param({"100", "1000", "4000"})
+	public int size;
+
+	private MazeSolver mazeSolver;
+	private Maze maze;
+
+
+	@Setup(Level.Trial)
+	public void setUp() throws ReflectiveOperationException {
+		mazeSolver = (MazeSolver) Mazes.implementation("mazeSolver", solver).getConstructor().newInstance();
+		maze = Mazes.generate(Mazes.type(solver), size);
+	} // end of setUp()
+
+
+	@Benchmark
+	public int solve() {
+		mazeSolver.solveMaze(maze);
+		if (!mazeSolver.isSolved())
+			throw new IllegalStateException(solver + " did not solve the maze");
+		return mazeSolver.cellsExplored();
+	} // end of solve()
+
+} // end of class SolverBenchmark
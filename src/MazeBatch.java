@@ -0,0 +1,357 @@
+import java.io.*;
+import java.util.*;
+
+import maze.*;
+import mazeGenerator.*;
+import mazeSolver.*;
+
+
+/**
+ * Batch mode of MazeTester: runs many mazes in one JVM and times every step.
+ *
+ * The input is a directory of .para files, or a manifest file. Each line of a
+ * manifest is either the name of a .para file (relative to the manifest), or
+ * a combination of comma separated lists:
+ *
+ *   maze type, generators, solvers, sizes, seeds
+ *
+ * e.g. "normal recurBackFast,kruskal bfs,aStar 100,1000 1,2" runs every
+ * generator with every solver on 100 x 100 and 1000 x 1000 mazes with seeds 1
+ * and 2, entrance at (0, 0) and exit at (size - 1, size - 1). Empty lines and
+ * lines starting with # are skipped.
+ *
+ * Every entry runs the warm-up runs, which are not reported, and then the
+ * measured runs. Run i uses seed + i, so runs are reproducible but differ.
+ * The generator and solver of an entry are built once and reused by all its
+ * runs, as in steady-state use; a solver making random choices draws from a
+ * Random seeded by the entry.
+ * Entries of a .para file without a seed use seed 0. Mazes are not drawn, and
+ * the messages of validate() are dropped.
+ */
+class MazeBatch {
+
+	/**
+	 * Steps timed in every run.
+	 */
+	static final String STEPS[] = {"init", "generate", "isPerfect", "solve", "validate"};
+
+	/**
+	 * Percentiles reported for every step.
+	 */
+	static final double PERCENTILES[] = {50, 90, 99, 100};
+
+	/**
+	 * Entry of the batch.
+	 */
+	static class Entry {
+		String name;
+		MazeTester.Input input;
+	} // end of class Entry
+
+	/**
+	 * Timings of one measured run.
+	 */
+	static class Run {
+		Entry entry;
+		int run;
+		long seed;
+		boolean perfect;
+		boolean solved;
+		boolean valid;
+		int cellsExplored;
+		// milliseconds per step of STEPS, NaN if the step did not run
+		double time[] = new double[STEPS.length];
+	} // end of class Run
+
+
+	public static void main(String[] args) {
+		if (args.length < 3 || args.length > 4) {
+			System.err.println("Incorrect number of arguments.");
+			MazeTester.usage(MazeTester.progName);
+		}
+
+		int warmUps = 0;
+		int runs = 0;
+		List<Entry> entries = null;
+		try {
+			warmUps = Integer.parseInt(args[1]);
+			runs = Integer.parseInt(args[2]);
+			entries = readEntries(new File(args[0]));
+		} catch (NumberFormatException e) {
+			System.err.println("Incorrect number of runs.");
+			MazeTester.usage(MazeTester.progName);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Cannot read batch input: " + e.getMessage());
+			MazeTester.usage(MazeTester.progName);
+		}
+
+		List<Run> results = new ArrayList<>();
+		PrintStream out = System.out;
+		for (Entry entry : entries) {
+			out.println("Running " + entry.name + " (" + warmUps + " warm-up, " + runs + " measured runs).");
+			try {
+				// one generator and solver for every run of the entry, so runs after the first reuse their scratch
+				MazeGenerator mazeGen = MazeTester.createGenerator(entry.input.mazeGeneratorName);
+				MazeSolver mazeSolver = MazeTester.createSolver(entry.input.mazeSolverName,
+						FastRandom.create(entry.input.randomName, entry.input.seed));
+				for (int i = 0; i < warmUps; i++)
+					runOnce(entry, i, mazeGen, mazeSolver);
+				List<Run> entryResults = new ArrayList<>();
+				for (int i = 0; i < runs; i++)
+					entryResults.add(runOnce(entry, warmUps + i, mazeGen, mazeSolver));
+				printSummary(out, entryResults);
+				results.addAll(entryResults);
+			} catch (RuntimeException e) {
+				System.err.println("Skipping " + entry.name + ": " + e);
+			}
+		}
+
+		if (args.length == 4) {
+			try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(args[3])))) {
+				if (args[3].endsWith(".json"))
+					writeJson(writer, results);
+				else
+					writeCsv(writer, results);
+			} catch (IOException e) {
+				System.err.println("Cannot write " + args[3] + ": " + e.getMessage());
+				System.exit(1);
+			}
+		}
+	} // end of main()
+
+
+	/**
+	 * Read the entries of a directory or manifest.
+	 */
+	static List<Entry> readEntries(File source) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		if (source.isDirectory()) {
+			File files[] = source.listFiles((dir, name) -> name.endsWith(".para"));
+			Arrays.sort(files);
+			for (File file : files)
+				entries.add(readPara(file));
+			return entries;
+		}
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(source))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String fields[] = line.split("\\s+");
+				if (fields.length == 1) {
+					File file = new File(fields[0]);
+					if (!file.isAbsolute())
+						file = new File(source.getAbsoluteFile().getParentFile(), fields[0]);
+					entries.add(readPara(file));
+				} else if (fields.length == 5) {
+					for (String generator : fields[1].split(","))
+						for (String solver : fields[2].split(","))
+							for (String size : fields[3].split(","))
+								for (String seed : fields[4].split(","))
+									entries.add(combination(fields[0], generator, solver, Integer.parseInt(size), Long.parseLong(seed)));
+				} else {
+					throw new IllegalArgumentException("incorrect manifest line \"" + line + "\"");
+				}
+			}
+		}
+		return entries;
+	} // end of readEntries()
+
+
+	static Entry readPara(File file) throws FileNotFoundException {
+		Entry entry = new Entry();
+		entry.name = file.getName();
+		entry.input = MazeTester.Input.read(file);
+		MazeTester.checkSolver(entry.input.mazeType, entry.input.mazeSolverName);
+		if (!entry.input.hasSeed)
+			entry.input.seed = 0;
+		return entry;
+	} // end of readPara()
+
+
+	static Entry combination(String mazeType, String generator, String solver, int size, long seed) {
+		Entry entry = new Entry();
+		entry.name = mazeType + "-" + generator + "-" + solver + "-" + size + "-" + seed;
+		entry.input = new MazeTester.Input();
+		entry.input.mazeType = mazeType;
+		entry.input.mazeGeneratorName = generator;
+		entry.input.mazeSolverName = solver;
+		entry.input.rowNum = size;
+		entry.input.colNum = size;
+		entry.input.exitR = size - 1;
+		entry.input.exitC = size - 1;
+		entry.input.seed = seed;
+		entry.input.hasSeed = true;
+		MazeTester.checkSolver(mazeType, solver);
+		return entry;
+	} // end of combination()
+
+
+	/**
+	 * Initialise, generate, check, solve and validate a maze once.
+	 * @param run Number of the run, added to the seed of the generator.
+	 * @param mazeGen Generator of the entry.
+	 * @param mazeSolver Solver of the entry, null for none. A solver making random choices
+	 * draws from its own Random, seeded by the entry and not by the run.
+	 */
+	static Run runOnce(Entry entry, int run, MazeGenerator mazeGen, MazeSolver mazeSolver) {
+		MazeTester.Input input = entry.input;
+		Run result = new Run();
+		result.entry = entry;
+		result.run = run;
+		result.seed = input.seed + run;
+		Arrays.fill(result.time, Double.NaN);
+
+		Random random = FastRandom.create(input.randomName, result.seed);
+		if (random == null)
+			throw new IllegalArgumentException("Unknown random number generator name.");
+
+		long start = System.nanoTime();
+		Maze maze = MazeTester.createMaze(input.mazeType);
+		maze.isVisu = false;
+		maze.initMaze(input.rowNum, input.colNum, input.entR, input.entC, input.exitR, input.exitC, input.tunnelList);
+		start = lap(result, 0, start);
+
+		mazeGen.generateMaze(maze, random);
+		start = lap(result, 1, start);
+
+		result.perfect = MazeTester.isPerfect(maze, input.checkName);
+		start = lap(result, 2, start);
+		if (!result.perfect || mazeSolver == null)
+			return result;
+
+		mazeSolver.solveMaze(maze);
+		result.solved = mazeSolver.isSolved();
+		result.cellsExplored = mazeSolver.cellsExplored();
+		start = lap(result, 3, start);
+		if (!result.solved)
+			return result;
+
+		result.valid = maze.validate(MazeTester.noOutStream);
+		lap(result, 4, start);
+		return result;
+	} // end of runOnce()
+
+
+	/**
+	 * Record the time of a step.
+	 * @return Start of the next step.
+	 */
+	static long lap(Run result, int step, long start) {
+		long end = System.nanoTime();
+		result.time[step] = (end - start) / 1e6;
+		return end;
+	} // end of lap()
+
+
+	/**
+	 * Percentile of the times of a step, nearest rank.
+	 * @return NaN if the step never ran.
+	 */
+	static double percentile(List<Run> runs, int step, double p) {
+		double times[] = new double[runs.size()];
+		int n = 0;
+		for (Run run : runs)
+			if (!Double.isNaN(run.time[step]))
+				times[n++] = run.time[step];
+		if (n == 0)
+			return Double.NaN;
+		Arrays.sort(times, 0, n);
+		int rank = (int) Math.ceil(p / 100 * n);
+		return times[Math.max(rank, 1) - 1];
+	} // end of percentile()
+
+
+	static void printSummary(PrintStream out, List<Run> runs) {
+		if (runs.isEmpty())
+			return;
+		int perfect = 0, solved = 0, valid = 0;
+		for (Run run : runs) {
+			if (run.perfect) perfect++;
+			if (run.solved) solved++;
+			if (run.valid) valid++;
+		}
+		out.println("  perfect " + perfect + ", solved " + solved + ", valid " + valid + " of " + runs.size());
+		StringBuilder header = new StringBuilder(String.format("  %-10s", "ms"));
+		for (double p : PERCENTILES)
+			header.append(String.format(" %10s", p == 100 ? "max" : "p" + (int) p));
+		out.println(header);
+		for (int step = 0; step < STEPS.length; step++) {
+			StringBuilder line = new StringBuilder(String.format("  %-10s", STEPS[step]));
+			for (double p : PERCENTILES)
+				line.append(String.format(Locale.ROOT, " %10.3f", percentile(runs, step, p)));
+			out.println(line);
+		}
+	} // end of printSummary()
+
+
+	static String time(double ms) {
+		return Double.isNaN(ms) ? "" : String.format(Locale.ROOT, "%.3f", ms);
+	} // end of time()
+
+
+	static void writeCsv(PrintWriter writer, List<Run> runs) {
+		writer.print("entry,type,generator,solver,rows,columns,run,seed,perfect,solved,valid,cellsExplored");
+		for (String step : STEPS)
+			writer.print("," + step + "Ms");
+		writer.println();
+		for (Run run : runs) {
+			MazeTester.Input input = run.entry.input;
+			writer.print(run.entry.name + "," + input.mazeType + "," + input.mazeGeneratorName + "," + input.mazeSolverName
+					+ "," + input.rowNum + "," + input.colNum + "," + run.run + "," + run.seed
+					+ "," + run.perfect + "," + run.solved + "," + run.valid + "," + run.cellsExplored);
+			for (double ms : run.time)
+				writer.print("," + time(ms));
+			writer.println();
+		}
+	} // end of writeCsv()
+
+
+	static void writeJson(PrintWriter writer, List<Run> runs) {
+		// group the runs by entry, in order
+		Map<Entry, List<Run>> byEntry = new LinkedHashMap<>();
+		for (Run run : runs)
+			byEntry.computeIfAbsent(run.entry, e -> new ArrayList<>()).add(run);
+
+		writer.println("[");
+		int e = 0;
+		for (Map.Entry<Entry, List<Run>> group : byEntry.entrySet()) {
+			MazeTester.Input input = group.getKey().input;
+			writer.println("  {\"entry\": \"" + group.getKey().name + "\", \"type\": \"" + input.mazeType
+					+ "\", \"generator\": \"" + input.mazeGeneratorName + "\", \"solver\": \"" + input.mazeSolverName
+					+ "\", \"rows\": " + input.rowNum + ", \"columns\": " + input.colNum + ",");
+
+			writer.println("   \"percentiles\": {");
+			for (int step = 0; step < STEPS.length; step++) {
+				writer.print("    \"" + STEPS[step] + "Ms\": {");
+				for (int i = 0; i < PERCENTILES.length; i++) {
+					double p = PERCENTILES[i];
+					writer.print((i > 0 ? ", " : "") + "\"" + (p == 100 ? "max" : "p" + (int) p) + "\": "
+							+ json(percentile(group.getValue(), step, p)));
+				}
+				writer.println("}" + (step + 1 < STEPS.length ? "," : ""));
+			}
+			writer.println("   },");
+
+			writer.println("   \"runs\": [");
+			int r = 0;
+			for (Run run : group.getValue()) {
+				writer.print("    {\"run\": " + run.run + ", \"seed\": " + run.seed + ", \"perfect\": " + run.perfect
+						+ ", \"solved\": " + run.solved + ", \"valid\": " + run.valid + ", \"cellsExplored\": " + run.cellsExplored);
+				for (int step = 0; step < STEPS.length; step++)
+					writer.print(", \"" + STEPS[step] + "Ms\": " + json(run.time[step]));
+				writer.println("}" + (++r < group.getValue().size() ? "," : ""));
+			}
+			writer.println("   ]}" + (++e < byEntry.size() ? "," : ""));
+		}
+		writer.println("]");
+	} // end of writeJson()
+
+
+	static String json(double ms) {
+		return Double.isNaN(ms) ? "null" : time(ms);
+	} // end of json()
+
+} // end of class MazeBatch
@@ -0,0 +1,305 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import maze.*;
+import mazeGenerator.*;
+import mazeSolver.*;
+
+
+/**
+ * Service generating and solving many mazes at once, for callers submitting jobs
+ * from any number of threads.
+ *
+ * Every job gets its own maze and random number generator. Generators and solvers are
+ * built by the factories of MazeTester once per name, and shared by every job: they keep
+ * their scratch state per thread (see MazeGenerator and MazeSolver), so a thread of the
+ * service reuses its scratch from job to job instead of allocating it again, and a parallel
+ * generator keeps one pool of threads. Shared solvers are built without a Random, so the
+ * random choices of a solver (biDirrecurBack) are not reproduced by the seed of a job. The
+ * sample solver keeps its state in fields, so every job builds its own. Jobs run on a fixed pool of
+ * platform threads, one per job running at once. A semaphore bounds the jobs in the
+ * service, running or waiting: submit() waits for room, trySubmit() refuses the job,
+ * so a caller faster than the service is slowed down instead of queueing without end.
+ *
+ * Every job reports its latency: the time waiting for room in the service and for a
+ * thread, measured from the call of submit(), and the time running.
+ *
+ * Jobs print nothing: a job that validates passes validate() a stream dropping the result.
+ *
+ * @author rommel gaddi
+ */
+class MazeService implements AutoCloseable {
+
+	/**
+	 * Result of a job.
+	 */
+	static class Result {
+		MazeTester.Input input;
+		boolean perfect;
+		boolean solved;
+		boolean valid;
+		int cellsExplored;
+		// milliseconds waiting for room and a thread, generating, and solving and validating
+		double waitTime;
+		double generateTime;
+		double solveTime;
+
+		/**
+		 * @return Milliseconds from submitting the job to its end.
+		 */
+		double latency() {
+			return waitTime + generateTime + solveTime;
+		} // end of latency()
+	} // end of class Result
+
+
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private final boolean isValidating;
+	// generators and solvers shared by the jobs, by name
+	private final ConcurrentMap<String, MazeGenerator> generators = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, MazeSolver> solvers = new ConcurrentHashMap<>();
+
+
+	/**
+	 * construct the service
+	 * @param concurrency Most jobs running at once, the number of threads.
+	 * @param queueCapacity Most jobs waiting for a thread.
+	 * @param isValidating Whether to validate every solution.
+	 */
+	MazeService(int concurrency, int queueCapacity, boolean isValidating) {
+		if (concurrency < 1 || queueCapacity < 0)
+			throw new IllegalArgumentException("Concurrency must be at least 1, the queue capacity at least 0.");
+		executor = Executors.newFixedThreadPool(concurrency);
+		permits = new Semaphore(concurrency + queueCapacity);
+		this.isValidating = isValidating;
+	} // end of MazeService()
+
+
+	/**
+	 * Submit a job, waiting while the service is full.
+	 * @param input Maze, generator, solver (none to only generate) and seed of the job.
+	 * @return The result, once the job ended. Completes exceptionally if the job failed.
+	 * @throws InterruptedException If interrupted while waiting for room.
+	 */
+	CompletableFuture<Result> submit(MazeTester.Input input) throws InterruptedException {
+		// the wait for room is part of the latency, or a full service would hide its queue
+		long submitted = System.nanoTime();
+		permits.acquire();
+		return start(input, submitted);
+	} // end of submit()
+
+
+	/**
+	 * Submit a job if the service is not full.
+	 * @return The result as for submit(), or null if the service is full.
+	 */
+	CompletableFuture<Result> trySubmit(MazeTester.Input input) {
+		long submitted = System.nanoTime();
+		if (!permits.tryAcquire())
+			return null;
+		return start(input, submitted);
+	} // end of trySubmit()
+
+
+	/**
+	 * Run a job holding a permit, and release the permit when it ends.
+	 * @param submitted Time the job was submitted, in nanoseconds.
+	 */
+	private CompletableFuture<Result> start(final MazeTester.Input input, final long submitted) {
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return run(input, submitted);
+				} finally {
+					permits.release();
+				}
+			}, executor);
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			throw e;
+		}
+	} // end of start()
+
+
+	/**
+	 * Generate a maze, check it, and solve and validate it, on a thread of the service.
+	 * @param submitted Time the job was submitted, in nanoseconds.
+	 */
+	private Result run(MazeTester.Input input, long submitted) {
+		Result result = new Result();
+		result.input = input;
+		long start = System.nanoTime();
+		result.waitTime = (start - submitted) / 1e6;
+
+		Random random = FastRandom.create(input.randomName, input.seed);
+		if (random == null)
+			throw new IllegalArgumentException("Unknown random number generator name.");
+		MazeGenerator mazeGen = generators.computeIfAbsent(input.mazeGeneratorName, MazeTester::createGenerator);
+		MazeSolver mazeSolver = solver(input.mazeSolverName);
+
+		Maze maze = MazeTester.createMaze(input.mazeType);
+		maze.isVisu = false;
+		maze.initMaze(input.rowNum, input.colNum, input.entR, input.entC, input.exitR, input.exitC, input.tunnelList);
+		mazeGen.generateMaze(maze, random);
+		long end = System.nanoTime();
+		result.generateTime = (end - start) / 1e6;
+		start = end;
+
+		result.perfect = MazeTester.isPerfect(maze, input.checkName);
+		if (result.perfect && mazeSolver != null) {
+			mazeSolver.solveMaze(maze);
+			result.solved = mazeSolver.isSolved();
+			result.cellsExplored = mazeSolver.cellsExplored();
+			if (result.solved && isValidating)
+				result.valid = maze.validate(MazeTester.noOutStream);
+		}
+		result.solveTime = (System.nanoTime() - start) / 1e6;
+		return result;
+	} // end of run()
+
+
+	/**
+	 * Solver of a job, shared by every job with the same solver name.
+	 * @return null for "none".
+	 */
+	private MazeSolver solver(String mazeSolverName) {
+		if (mazeSolverName.equals("none"))
+			return null;
+		if (mazeSolverName.equals("sample"))
+			return MazeTester.createSolver(mazeSolverName, null);
+		return solvers.computeIfAbsent(mazeSolverName, name -> MazeTester.createSolver(name, null));
+	} // end of solver()
+
+
+	/**
+	 * Stop taking jobs, and wait for the jobs submitted to end. If interrupted, returns
+	 * at once with the interrupt status set, and the jobs left go on.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	} // end of close()
+
+
+	/**
+	 * Load generator: runs the same jobs with 1, 2, 4 ... up to the given number of threads,
+	 * and prints the throughput and latency percentiles of each.
+	 * @param args Number of jobs, maze type, generator, solver, size, and optionally the most
+	 * threads (default the number of processors) and "validate" to validate every solution.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 5 || args.length > 7) {
+			System.err.println("Incorrect number of arguments.");
+			MazeTester.usage(MazeTester.progName);
+		}
+
+		int numJobs = 0;
+		int size = 0;
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		boolean isValidating = args[args.length - 1].equals("validate");
+		try {
+			numJobs = Integer.parseInt(args[0]);
+			size = Integer.parseInt(args[4]);
+			if (args.length > (isValidating ? 6 : 5))
+				maxThreads = Integer.parseInt(args[5]);
+			if (numJobs < 1 || size < 1 || maxThreads < 1)
+				throw new NumberFormatException();
+		} catch (NumberFormatException e) {
+			System.err.println("Incorrect number of jobs, size or threads.");
+			MazeTester.usage(MazeTester.progName);
+		}
+
+		try {
+			MazeTester.createGenerator(args[2]);
+			MazeTester.createSolver(args[3], null);
+			MazeTester.checkSolver(args[1], args[3]);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			MazeTester.usage(MazeTester.progName);
+		}
+
+		System.out.println(String.format(Locale.ROOT, "%7s %10s %10s %10s %10s %10s %8s", "threads", "jobs/s", "speedup",
+				"p50 ms", "p99 ms", "max ms", "failed"));
+		double single = 0;
+		for (int threads = 1;; threads = Math.min(2 * threads, maxThreads)) {
+			// a warm-up round of the same jobs, then the measured one
+			load(threads, numJobs, args[1], args[2], args[3], size, isValidating);
+			List<Result> results = new ArrayList<>();
+			long start = System.nanoTime();
+			int failed = load(threads, numJobs, args[1], args[2], args[3], size, isValidating, results);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			double throughput = results.size() / seconds;
+			if (threads == 1)
+				single = throughput;
+			double latencies[] = new double[results.size()];
+			for (int i = 0; i < latencies.length; i++)
+				latencies[i] = results.get(i).latency();
+			Arrays.sort(latencies);
+			System.out.println(String.format(Locale.ROOT, "%7d %10.1f %10.2f %10.3f %10.3f %10.3f %8d", threads, throughput,
+					throughput / single, percentile(latencies, 50), percentile(latencies, 99), percentile(latencies, 100), failed));
+			if (threads == maxThreads)
+				break;
+		}
+	} // end of main()
+
+
+	/**
+	 * Submit jobs to a new service from one thread, as fast as the service takes them.
+	 */
+	private static void load(int threads, int numJobs, String mazeType, String generator, String solver, int size,
+			boolean isValidating) {
+		load(threads, numJobs, mazeType, generator, solver, size, isValidating, new ArrayList<Result>());
+	} // end of load()
+
+
+	/**
+	 * Submit jobs to a new service from one thread, as fast as the service takes them,
+	 * with seeds 0 to numJobs - 1.
+	 * @param results Receives the results of the jobs that did not fail.
+	 * @return Number of jobs failed, or not perfect, solved or valid.
+	 */
+	private static int load(int threads, int numJobs, String mazeType, String generator, String solver, int size,
+			boolean isValidating, List<Result> results) {
+		List<CompletableFuture<Result>> futures = new ArrayList<>();
+		try (MazeService service = new MazeService(threads, 2 * threads, isValidating)) {
+			for (int i = 0; i < numJobs; i++)
+				futures.add(service.submit(MazeBatch.combination(mazeType, generator, solver, size, i).input));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		int failed = 0;
+		for (CompletableFuture<Result> future : futures) {
+			try {
+				Result result = future.join();
+				results.add(result);
+				if (!result.perfect || (!solver.equals("none") && !result.solved) || (isValidating && !result.valid))
+					failed++;
+			} catch (CompletionException | CancellationException e) {
+				failed++;
+			}
+		}
+		return failed;
+	} // end of load()
+
+
+	/**
+	 * Percentile of sorted times, nearest rank, as MazeBatch.percentile().
+	 * @return NaN if there are no times.
+	 */
+	private static double percentile(double times[], double p) {
+		if (times.length == 0)
+			return Double.NaN;
+		int rank = (int) Math.ceil(p / 100 * times.length);
+		return times[Math.max(rank, 1) - 1];
+	} // end of percentile()
+
+} // end of class MazeService
@@ -1,4 +1,5 @@
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
 
 import maze.*;
@@ -25,20 +26,518 @@ class MazeTester {
 	 */
 	protected static final PrintStream outStream = System.out;
 
+	/**
+	 * Stream dropping everything printed to it, for Maze.validate(PrintStream) when only the result counts.
+	 */
+	static final PrintStream noOutStream = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+	});
+
+	/**
+	 * Checker of "check parallel", shared so its pool of threads is kept.
+	 */
+	private static final ParallelPerfectChecker perfectChecker = new ParallelPerfectChecker();
+
+	/**
+	 * Parameters read from an input file.
+	 */
+	static class Input {
+		// default values for parameters
+		String mazeType = "normal";
+		String mazeGeneratorName = "recurBack";
+		String mazeSolverName = "wallFollower";
+		int rowNum = 30;
+		int colNum = 30;
+		int entR = 0;
+		int entC = 0;
+		int exitR = 0;
+		int exitC = 1;
+		List<int[]> tunnelList = new ArrayList<int[]>();
+		long seed = System.currentTimeMillis();
+		boolean hasSeed = false;
+		String randomName = FastRandom.RANDOM;
+		String checkName = "serial";
+		String eventsName = "none";
+		String traceName = null;
+
+		/**
+		 * Read an input parameter file.
+		 * @param fin The input file.
+		 */
+		static Input read(File fin) throws FileNotFoundException {
+			Input input = new Input();
+			Scanner scanner = new Scanner(fin);
+			input.mazeType = scanner.next();
+
+			input.mazeGeneratorName = scanner.next();
+			input.mazeSolverName = scanner.next();
+
+			input.rowNum = Integer.parseInt(scanner.next());
+			input.colNum = Integer.parseInt(scanner.next());
+
+			input.entR = Integer.parseInt(scanner.next());
+			input.entC = Integer.parseInt(scanner.next());
+			input.exitR = Integer.parseInt(scanner.next());
+			input.exitC = Integer.parseInt(scanner.next());
+
+			// add tunnels, and optional "seed <number>", "random <random | fast>", "check <serial | parallel>"
+			// "events <none | metrics>" and "trace <fileName>" settings
+			while (scanner.hasNext()) {
+				String token = scanner.next();
+				if (token.equals("seed")) {
+					input.seed = Long.parseLong(scanner.next());
+					input.hasSeed = true;
+					continue;
+				}
+				if (token.equals("random")) {
+					input.randomName = scanner.next();
+					continue;
+				}
+				if (token.equals("check")) {
+					input.checkName = scanner.next();
+					continue;
+				}
+				if (token.equals("events")) {
+					input.eventsName = scanner.next();
+					continue;
+				}
+				if (token.equals("trace")) {
+					input.traceName = scanner.next();
+					continue;
+				}
+				int temp[]= {Integer.parseInt(token), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next())};
+				input.tunnelList.add(temp);
+			}
+			scanner.close();
+			return input;
+		} // end of read()
+	} // end of class Input
+
 	/**
 	 * Print help/usage message.
 	 */
 	public static void usage(String progName) {
 		System.err.println(progName + ": [input fileName] <visualize maze>");
 		System.err.println("<visualize maze> = <y | n>");
+		System.err.println(progName + " -batch [directory | manifest] <warm-up runs> <measured runs> [output fileName]");
+		System.err.println("[output fileName] ending in .json for JSON, otherwise CSV");
+		System.err.println(progName + " -save [input fileName] [maze fileName]");
+		System.err.println(progName + " -load [maze fileName] [solver] <visualize maze> <mapped> <trace [trace fileName]>");
+		System.err.println(progName + " -png [maze fileName] [png fileName] [cell size] <tile size>");
+		System.err.println(progName + " -replay [maze fileName] [trace fileName] <visualize maze> <[png fileName] [cell size]>");
+		System.err.println(progName + " -service [jobs] [maze type] [generator] [solver] [size] <most threads> <validate>");
 		System.exit(1);
 	} // end of usage()
 
+	/**
+	 * Construct a maze.
+	 * @param mazeType normal, tunnel, hex, compact or mapped (a compact maze kept in a maze file in
+	 * the working directory, deleted on exit).
+	 * @throws IllegalArgumentException If the type is unknown.
+	 */
+	static Maze createMaze(String mazeType) {
+		switch (mazeType) {
+		case "normal":
+			return new NormalMaze();
+		case "tunnel":
+			return new TunnelMaze();
+		case "hex":
+			return new HexMaze();
+		case "compact":
+			return new CompactNormalMaze();
+		case "mapped":
+			try {
+				File file = File.createTempFile("maze", ".maze", new File("."));
+				file.deleteOnExit();
+				return new MappedNormalMaze(file.getPath());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		default:
+			throw new IllegalArgumentException("Unknown maze type.");
+		}
+	} // end of createMaze()
+
+	/**
+	 * Construct a maze generator.
+	 * @param mazeGeneratorName Name of the generator, as in the input file.
+	 * @throws IllegalArgumentException If the name is unknown.
+	 */
+	static MazeGenerator createGenerator(String mazeGeneratorName) {
+		switch (mazeGeneratorName) {
+		case "modiPrim":
+			return new ModifiedPrimsGenerator();
+		case "recurBack":
+			return new RecursiveBacktrackerGenerator();
+		case "recurBackFast":
+			return new RecursiveBacktrackerGenerator(true);
+		case "growingTree":
+			return new GrowingTreeGenerator();
+		case "growingTreeNewest":
+			return new GrowingTreeGenerator(GrowingTreeGenerator.NEWEST, 0);
+		case "growingTreeOldest":
+			return new GrowingTreeGenerator(GrowingTreeGenerator.OLDEST, 0);
+		case "growingTreeMixed":
+			return new GrowingTreeGenerator(GrowingTreeGenerator.MIXED, 0.1);
+		case "parallelTile":
+			return new ParallelTileGenerator();
+		case "kruskal":
+			return new KruskalGenerator();
+		case "parallelKruskal":
+			return new KruskalGenerator(Runtime.getRuntime().availableProcessors());
+		case "wilson":
+			return new WilsonGenerator();
+		case "aldousBroder":
+			return new AldousBroderGenerator();
+		case "aldousBroderWilson":
+			return new AldousBroderGenerator(1.0 / 3);
+		case "eller":
+			return new EllerGenerator();
+		default:
+			throw new IllegalArgumentException("Unknown maze generator name.");
+		}
+	} // end of createGenerator()
+
+	/**
+	 * Construct a maze solver.
+	 * @param mazeSolverName Name of the solver, as in the input file.
+	 * @param random Random number generator for solvers making random choices.
+	 * @return The solver, null for "none".
+	 * @throws IllegalArgumentException If the name is unknown.
+	 */
+	static MazeSolver createSolver(String mazeSolverName, Random random) {
+		switch (mazeSolverName) {
+		case "wallFollower":
+			return new WallFollowerSolver();
+		case "biDirrecurBack":
+			return new BiDirectionalRecursiveBacktrackerSolver(random);
+		case "bfs":
+			return new BreadthFirstSolver();
+		case "aStar":
+			return new AStarSolver();
+		case "biDirBfs":
+			return new BiDirectionalBreadthFirstSolver();
+		case "deadEnd":
+			return new DeadEndFillingSolver();
+		case "parallelDeadEnd":
+			return new DeadEndFillingSolver(Runtime.getRuntime().availableProcessors());
+		// sample solver to help you get started
+		case "sample":
+			return new SampleSolver();
+		// no solver
+		case "none":
+			return null;
+		default:
+			throw new IllegalArgumentException("Unknown maze solver name.");
+		}
+	} // end of createSolver()
+
+	/**
+	 * @param mazeSolverName Name of a solver, as in the input file.
+	 * @return True if the solver walks the Cells of a maze (Maze.map), which compact and mapped
+	 * mazes do not have. The sample solver is counted in, as it may.
+	 */
+	static boolean usesCells(String mazeSolverName) {
+		switch (mazeSolverName) {
+		case "wallFollower":
+		case "biDirrecurBack":
+		case "sample":
+			return true;
+		default:
+			return false;
+		}
+	} // end of usesCells()
+
+	/**
+	 * Check that a solver can solve a type of maze, before generating it.
+	 * @throws IllegalArgumentException If the solver walks Cells (see usesCells()), and the maze has none.
+	 */
+	static void checkSolver(String mazeType, String mazeSolverName) {
+		if ((mazeType.equals("compact") || mazeType.equals("mapped")) && usesCells(mazeSolverName))
+			throw new IllegalArgumentException("Solver " + mazeSolverName + " needs the Cells of a maze, which a "
+					+ mazeType + " maze does not have.");
+	} // end of checkSolver()
+
+	/**
+	 * Check whether a maze is perfect.
+	 * @param checkName serial for Maze.isPerfect(), parallel for ParallelPerfectChecker.
+	 * @throws IllegalArgumentException If the name is unknown.
+	 */
+	static boolean isPerfect(Maze maze, String checkName) {
+		switch (checkName) {
+		case "serial":
+			return maze.isPerfect();
+		case "parallel":
+			return perfectChecker.isPerfect(maze);
+		default:
+			throw new IllegalArgumentException("Unknown perfect maze check name.");
+		}
+	} // end of isPerfect()
+
+	/**
+	 * Solve a perfect maze and validate the solution, printing the results.
+	 */
+	static void solve(Maze maze, MazeSolver mazeSolver) {
+		mazeSolver.solveMaze(maze);
+		outStream.println(mazeSolver.getClass().getSimpleName() + " is solving the maze.");
+		// check if solver can get out of maze
+		if (mazeSolver.isSolved()) {
+			outStream.println("The maze has been solved!");
+			// display number of cells visited for solver
+			outStream.println("Number of cells visited = " + mazeSolver.cellsExplored());
+			// show results from validation
+			outStream.println("Validation result:");
+			boolean isValid = maze.validate();
+			outStream.println("The solution is " + (isValid ? "" : "not ") + "valid!");
+		} else {
+			outStream.println("Solver was failed!");
+		}
+	} // end of solve()
+
+	/**
+	 * Solve a perfect maze as solve(), publishing the events of the solver (see SolverEvents) to
+	 * the consumers asked for, and printing what they found.
+	 * @param eventsName none, or metrics to count the events by type.
+	 * @param traceName File to write the events to (see TraceFile), null for none.
+	 * @throws IllegalArgumentException If the events name is unknown.
+	 * @throws IOException If the trace file cannot be written.
+	 */
+	static void solve(Maze maze, MazeSolver mazeSolver, String eventsName, String traceName) throws IOException {
+		List<SolverEvents.Consumer> consumers = new ArrayList<>();
+		SolverMetrics metrics = null;
+		if (eventsName.equals("metrics")) {
+			metrics = new SolverMetrics();
+			consumers.add(metrics);
+		} else if (!eventsName.equals("none")) {
+			throw new IllegalArgumentException("Unknown solver events name.");
+		}
+		TraceFile.Writer trace = null;
+		if (traceName != null) {
+			trace = new TraceFile(traceName).writer(maze);
+			consumers.add(trace);
+		}
+		if (consumers.isEmpty()) {
+			solve(maze, mazeSolver);
+			return;
+		}
+
+		maze.events = new SolverEvents(consumers.toArray(new SolverEvents.Consumer[0])).start();
+		try {
+			solve(maze, mazeSolver);
+		} finally {
+			// pass on the events published so far before the trace is closed, even if the solver failed
+			maze.events.close();
+			maze.events = null;
+			if (trace != null)
+				trace.close();
+		}
+		if (metrics != null)
+			outStream.println("Solver events: " + metrics);
+		if (trace != null)
+			outStream.println("The " + trace.count() + " solver events are traced to " + traceName + ".");
+	} // end of solve()
+
+	/**
+	 * Solve a maze saved by -save, without generating it.
+	 * @param args "-load", the maze filename, the solver name, "y/n" indicating whether to visualize the maze,
+	 * optionally "mapped" to solve the maze in its file (MappedNormalMaze) instead of loading it, and
+	 * optionally "trace" and a filename to write the events of the solver to (see TraceFile).
+	 */
+	static void load(String[] args) {
+		boolean isMapped = false;
+		String traceName = null;
+		for (int i = 4; i < args.length; i++) {
+			if (args[i].equals("mapped") && !isMapped) {
+				isMapped = true;
+			} else if (args[i].equals("trace") && traceName == null && i + 1 < args.length) {
+				traceName = args[++i];
+			} else {
+				System.err.println("Incorrect number of arguments.");
+				usage(progName);
+			}
+		}
+		if (args.length < 4) {
+			System.err.println("Incorrect number of arguments.");
+			usage(progName);
+		}
+
+		boolean isVisu = false;
+		switch (args[3]) {
+		case "y":
+			isVisu = true;
+			break;
+		case "n":
+			isVisu = false;
+			break;
+		default:
+			System.err.println("Incorrect argument value.");
+			usage(progName);
+		}
+
+		if (isMapped) {
+			try {
+				checkSolver("mapped", args[2]);
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				usage(progName);
+			}
+		}
+
+		// a normal maze is loaded compact, unless the solver walks Cells
+		MazeFile file = new MazeFile(args[1]);
+		Maze maze = null;
+		try {
+			maze = isMapped ? file.map() : file.load(!usesCells(args[2]));
+		} catch (NoSuchFileException e) {
+			System.err.println("Maze file doesn't exist.");
+			usage(progName);
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			usage(progName);
+		}
+
+		outStream.println("The maze is loaded from " + args[1] + " (seed = " + file.seed() + ").");
+		maze.isVisu = isVisu;
+
+		boolean isPerfectMaze = maze.isPerfect();
+		outStream.println("The maze is " + (isPerfectMaze ? "" : "not ") + "perfect!");
+		maze.draw();
+
+		if (isPerfectMaze) {
+			MazeSolver mazeSolver = null;
+			try {
+				mazeSolver = createSolver(args[2], FastRandom.create(FastRandom.RANDOM, file.seed()));
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				usage(progName);
+			}
+			if (mazeSolver != null) {
+				try {
+					solve(maze, mazeSolver, "none", traceName);
+				} catch (IOException e) {
+					System.err.println(e.getMessage());
+					usage(progName);
+				}
+			}
+		}
+	} // end of load()
+
+	/**
+	 * Draw a maze saved by -save into a PNG file, without a window.
+	 * @param args "-png", the maze filename, the PNG filename, the cell size in pixels, and optionally
+	 * a tile size in pixels to draw the maze into tiles named after the PNG file (see MazeRenderer.writeTiles()).
+	 */
+	static void png(String[] args) {
+		if (args.length != 4 && args.length != 5) {
+			System.err.println("Incorrect number of arguments.");
+			usage(progName);
+		}
+
+		MazeFile file = new MazeFile(args[1]);
+		try {
+			Maze maze = file.load();
+			MazeRenderer renderer = new MazeRenderer(Integer.parseInt(args[3]));
+			if (args.length == 4) {
+				renderer.writePng(maze, new File(args[2]));
+				outStream.println("The maze is drawn to " + args[2] + ".");
+			} else {
+				String prefix = args[2].endsWith(".png") ? args[2].substring(0, args[2].length() - 4) : args[2];
+				int numTiles = renderer.writeTiles(maze, prefix, Integer.parseInt(args[4]));
+				outStream.println("The maze is drawn to " + numTiles + " tiles " + prefix + "_row_column.png.");
+			}
+		} catch (NoSuchFileException e) {
+			System.err.println("Maze file doesn't exist.");
+			usage(progName);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage(progName);
+		}
+	} // end of png()
+
+	/**
+	 * Replay a trace written by a solver (see TraceFile) on the maze saved by -save, without solving
+	 * it again: every visited cell is drawn with drawFtPrt(), then the solution is validated.
+	 * @param args "-replay", the maze filename, the trace filename, optionally "y/n" indicating whether to
+	 * visualize the maze, and optionally a PNG filename and a cell size in pixels to draw the solution to.
+	 */
+	static void replay(String[] args) {
+		if (args.length != 3 && args.length != 4 && args.length != 6) {
+			System.err.println("Incorrect number of arguments.");
+			usage(progName);
+		}
+		boolean isVisu = args.length > 3 && args[3].equals("y");
+		if (args.length > 3 && !isVisu && !args[3].equals("n")) {
+			System.err.println("Incorrect argument value.");
+			usage(progName);
+		}
+
+		try {
+			Maze maze = new MazeFile(args[1]).load();
+			maze.isVisu = isVisu;
+			maze.draw();
+
+			SolverMetrics metrics = new SolverMetrics();
+			long numEvents = new TraceFile(args[2]).replay(maze, (type, id) -> {
+				metrics.event(type, id);
+				if (type == SolverEvents.VISIT)
+					maze.drawFtPrt(id);
+			});
+			outStream.println(numEvents + " solver events are replayed: " + metrics);
+			outStream.println("Validation result:");
+			boolean isValid = maze.validate();
+			outStream.println("The solution is " + (isValid ? "" : "not ") + "valid!");
+
+			if (args.length == 6) {
+				new MazeRenderer(Integer.parseInt(args[5])).writePng(maze, new File(args[4]));
+				outStream.println("The solution is drawn to " + args[4] + ".");
+			}
+		} catch (NoSuchFileException e) {
+			System.err.println("Maze or trace file doesn't exist.");
+			usage(progName);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage(progName);
+		}
+	} // end of replay()
+
 	/**
 	 * Main function of tester.
-	 * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze. 
+	 * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze,
+	 * "-save", the input filename and the maze filename to generate a maze and save it instead of solving it,
+	 * "-load" and the arguments of load(), "-png" and the arguments of png(), "-replay" and the arguments of replay(),
+	 * "-batch" and the arguments of MazeBatch, or "-service" and the arguments of MazeService.
 	 */
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("-batch")) {
+			MazeBatch.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-load")) {
+			load(args);
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-png")) {
+			png(args);
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-replay")) {
+			replay(args);
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-service")) {
+			MazeService.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
+		// file to save the generated maze to
+		String saveName = null;
+		if (args.length == 3 && args[0].equals("-save")) {
+			saveName = args[2];
+			args = new String[] { args[1], "n" };
+		}
+
 		// read command line arguments
 		if (args.length != 2) {
 			System.err.println("Incorrect number of arguments.");
@@ -62,42 +561,12 @@ class MazeTester {
 			usage(progName);
 		}
 		
-		// default values for parameters 
-		String mazeType = "normal";
-		String mazeGeneratorName = "recurBack";
-		String mazeSolverName = "wallFollower";
-		int rowNum = 30;
-		int colNum = 30;
-		int entR = 0;
-		int entC = 0;
-		int exitR = 0;
-		int exitC = 1;
-		List<int[]> tunnelList = new ArrayList<int[]>();
-		
 		File fin = new File(fName);
 		
 		// read input parameter file
+		Input input = null;
 		try {
-			Scanner scanner = new Scanner(fin);
-			mazeType = scanner.next();
-			
-			mazeGeneratorName = scanner.next();
-			mazeSolverName = scanner.next();
-			
-			rowNum = Integer.parseInt(scanner.next());
-			colNum = Integer.parseInt(scanner.next());
-			
-			entR = Integer.parseInt(scanner.next());
-			entC = Integer.parseInt(scanner.next());
-			exitR = Integer.parseInt(scanner.next());
-			exitC = Integer.parseInt(scanner.next());
-
-			// add tunnels
-			while (scanner.hasNext()) {
-				int temp[]= {Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next())};
-				tunnelList.add(temp);
-			}
-			scanner.close();
+			input = Input.read(fin);
 		} catch (FileNotFoundException e) {
 			System.err.println("Input file doesn't exist.");
 			usage(progName);
@@ -105,7 +574,7 @@ class MazeTester {
 
 
                 // check rowNum and colNum
-                if (rowNum < 1 || colNum < 1) {
+                if (input.rowNum < 1 || input.colNum < 1) {
                         System.err.println("Row or column number of maze must be at least 1.");
                         usage(progName);
                 }
@@ -113,59 +582,71 @@ class MazeTester {
 		
 		// construct maze object 
 		Maze maze = null;
-		switch (mazeType) {
-		case "normal":
-			maze = new NormalMaze();
-			break;
-		case "tunnel":
-			maze = new TunnelMaze();
-			break;
-		case "hex":
-			maze = new HexMaze();
-			break;
-		default:
-			System.err.println("Unknown maze type.");
+		try {
+			maze = createMaze(input.mazeType);
+			// a saved maze is not solved
+			if (saveName == null)
+				checkSolver(input.mazeType, input.mazeSolverName);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
 			usage(progName);
 		}
 		
 		// initialise maze
-		maze.initMaze(rowNum, colNum, entR, entC, exitR, exitC, tunnelList);
+		maze.initMaze(input.rowNum, input.colNum, input.entR, input.entC, input.exitR, input.exitC, input.tunnelList);
 
 		// check if maze entrance or exit is valid
-		if (!maze.isOnEdge(entR, entC) || !maze.isOnEdge(exitR, exitC)) {
+		if (!maze.isOnEdge(input.entR, input.entC) || !maze.isOnEdge(input.exitR, input.exitC)) {
 			System.err.println("Incorrect maze entrance or exit position.");
 			usage(progName);
 		}
 		
 		// determine which implementation to test
 		MazeGenerator mazeGen = null;
-		switch (mazeGeneratorName) {
-		case "modiPrim":
-			mazeGen = new ModifiedPrimsGenerator();
-			break;
-		case "recurBack":
-			mazeGen = new RecursiveBacktrackerGenerator();
-			break;
-		case "growingTree":
-			mazeGen = new GrowingTreeGenerator();
-			break;
-		default:
-			System.err.println("Unknown maze generator name.");
+		try {
+			mazeGen = createGenerator(input.mazeGeneratorName);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
 			usage(progName);
 		}
 
-		outStream.println(mazeGen.getClass().getSimpleName() + " is generating the maze.");
+		// random number generator shared by generator and solver
+		Random random = FastRandom.create(input.randomName, input.seed);
+		if (random == null) {
+			System.err.println("Unknown random number generator name.");
+			usage(progName);
+		}
+
+		outStream.println(mazeGen.getClass().getSimpleName() + " is generating the maze (seed = " + input.seed + ").");
 
 		// generate maze
-		mazeGen.generateMaze(maze);
+		mazeGen.generateMaze(maze, random);
 
 		// update whether maze should be visualised
 		maze.isVisu = isVisu;
 
 		// check if maze is perfect
-		boolean isPerfectMaze = maze.isPerfect();
+		boolean isPerfectMaze = false;
+		try {
+			isPerfectMaze = isPerfect(maze, input.checkName);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage(progName);
+		}
 		
 		outStream.println("The maze is " + (isPerfectMaze ? "" : "not ") + "perfect!");
+
+		// save the maze instead of solving it
+		if (saveName != null) {
+			try {
+				new MazeFile(saveName).save(maze, input.seed);
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+				usage(progName);
+			}
+			outStream.println("The maze is saved to " + saveName + ".");
+			return;
+		}
 		
 		// draw maze (this depends on maze.isVisu)
 		maze.draw();
@@ -173,39 +654,19 @@ class MazeTester {
 		// solve the generateed maze if perfect
 		if (isPerfectMaze) {
 			MazeSolver mazeSolver = null;
-			switch (mazeSolverName) {
-			case "wallFollower":
-				mazeSolver = new WallFollowerSolver();
-				break;
-			case "biDirrecurBack":
-				mazeSolver = new BiDirectionalRecursiveBacktrackerSolver();
-				break;
-            // sample solver to help you get started
-            case "sample":
-                mazeSolver = new SampleSolver();
-                break;
-			// no solver
-			case "none":
-				break;
-			default:
-				System.err.println("Unknown maze solver name.");
+			try {
+				mazeSolver = createSolver(input.mazeSolverName, random);
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
 				usage(progName);
 			}
 
 			if (mazeSolver != null) {
-				mazeSolver.solveMaze(maze);
-				outStream.println(mazeSolver.getClass().getSimpleName() + " is solving the maze.");
-				// check if solver can get out of maze
-				if (mazeSolver.isSolved()) {
-					outStream.println("The maze has been solved!");
-					// display number of cells visited for solver
-					outStream.println("Number of cells visited = " + mazeSolver.cellsExplored());
-					// show results from validation
-					outStream.println("Validation result:");
-					boolean isValid = maze.validate();
-					outStream.println("The solution is " + (isValid ? "" : "not ") + "valid!");
-				} else {
-					outStream.println("Solver was failed!");
+				try {
+					solve(maze, mazeSolver, input.eventsName, input.traceName);
+				} catch (IOException | IllegalArgumentException e) {
+					System.err.println(e.getMessage());
+					usage(progName);
 				}
 			}
 		}
@@ -0,0 +1,464 @@
+package maze;
+
+import java.io.PrintStream;
+import java.util.*;
+
+import maze.StdDraw;
+
+/**
+ * Class of a normal rectangular maze stored in primitive arrays.
+ *
+ * No Cell or Wall objects are created and map[][] stays null. Each cell
+ * owns its EAST and NORTH walls, stored as two bits of a long[] bitset;
+ * WEST and SOUTH walls are the EAST and NORTH walls of the neighbors, and
+ * walls on the boundary are always present. Neighbors are derived from
+ * deltaR[]/deltaC[], so the maze needs about 3 bits per cell (walls and
+ * drawFtPrt() records) and must be used through the index functions of Maze.
+ * entrance and exit are stand-alone Cell objects holding only coordinates.
+ *
+ */
+public class CompactNormalMaze extends Maze {
+
+	/**
+	 * Wall bitset, bit 2 * id is the EAST wall and bit 2 * id + 1 the NORTH wall of cell id
+	 */
+	protected long walls[];
+
+	/**
+	 * Bitset to record visited cells by drawFtPrt()
+	 */
+	protected long isRecorded[];
+
+	// breadth first search of isPerfect() and validate(), kept for reuse: one bit per
+	// cell, the size of the maze itself, where a MazeTraversal takes 8 bytes per cell
+	private long visited[] = new long[0];
+	private IntQueue queue = new IntQueue();
+	private int next[] = new int[NUM_DIR + 1];
+	private int exitStep = 0;
+
+
+	public CompactNormalMaze() {
+		type = NORMAL;
+	} // end of CompactNormalMaze()
+
+	// auxiliary functions
+	/**
+	 * Check whether cell (r, c) is in the maze.
+	 * @param r Row coordinate
+	 * @param c Column coordinate
+	 * @return True if in the maze. Otherwise false.
+	 */
+	protected boolean isIn(int r, int c) {
+		return r >= 0 && r < sizeR && c >= 0 && c < sizeC;
+	} // end of isIn()
+
+
+	/**
+	 * Position of the bit of the wall between a cell and its neighbor.
+	 * @param id Cell index.
+	 * @param dir Direction of the wall.
+	 * @return Bit position in walls[], -1 if the wall is on the boundary.
+	 */
+	protected long wallBit(int id, int dir) {
+		int next = neighbour(id, dir);
+		if (next < 0)
+			return -1;
+		if (dir < WEST)
+			return 2L * id + dir / 2;
+		return 2L * next + oppoDir[dir] / 2;
+	} // end of wallBit()
+
+
+	protected static boolean testBit(long bits[], long i) {
+		return (bits[(int) (i >>> 6)] & (1L << i)) != 0;
+	} // end of testBit()
+
+
+	protected static void setBit(long bits[], long i) {
+		bits[(int) (i >>> 6)] |= 1L << i;
+	} // end of setBit()
+
+
+	@Override
+	public boolean isOnEdge(int r, int c) {
+		if (isIn(r, c) && (r == 0 || r == sizeR - 1 || c == 0 || c == sizeC - 1))
+			return true;
+		return false;
+	} // end of isOnEdge()
+
+
+	@Override
+	public void initMaze(int rs, int cs, int entR, int entC, int exitR, int exitC, List<int[]> tunnelList) {
+		if ((long) rs * cs > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Maze has more than " + Integer.MAX_VALUE + " cells.");
+
+		// set up maze constants
+		sizeR = rs;
+		sizeC = cs;
+		sizeTunnel = tunnelList.size();
+
+		// set up entrance and exit
+		if (isIn(entR, entC))
+			entrance = new Cell(entR, entC);
+		if (isIn(exitR, exitC))
+			exit = new Cell(exitR, exitC);
+
+		initBits();
+	} // end of initMaze()
+
+
+	// storage of the bitsets, overridden by mazes keeping them elsewhere (see MappedNormalMaze)
+	/**
+	 * Set up the bitsets of a maze of sizeR * sizeC cells: every wall present, no cell recorded.
+	 */
+	protected void initBits() {
+		walls = new long[numWallWords()];
+		Arrays.fill(walls, -1L);
+
+		// set up recording bitset for validation
+		isRecorded = new long[numRecordWords()];
+	} // end of initBits()
+
+
+	/**
+	 * @return Number of longs of the wall bitset.
+	 */
+	protected int numWallWords() {
+		return (int) ((2L * sizeR * sizeC + 63) >>> 6);
+	} // end of numWallWords()
+
+
+	/**
+	 * @return Number of longs of the recording bitset.
+	 */
+	protected int numRecordWords() {
+		return (int) (((long) sizeR * sizeC + 63) >>> 6);
+	} // end of numRecordWords()
+
+
+	protected long wallWord(int i) {
+		return walls[i];
+	} // end of wallWord()
+
+
+	protected boolean isWall(long bit) {
+		return testBit(walls, bit);
+	} // end of isWall()
+
+
+	protected void clearWall(long bit) {
+		walls[(int) (bit >>> 6)] &= ~(1L << bit);
+	} // end of clearWall()
+
+
+	protected long recordWord(int i) {
+		return isRecorded[i];
+	} // end of recordWord()
+
+
+	protected boolean hasRecord(int id) {
+		return testBit(isRecorded, id);
+	} // end of hasRecord()
+
+
+	protected void record(int id) {
+		setBit(isRecorded, id);
+	} // end of record()
+
+
+	@Override
+	public boolean isPerfect() {
+		int numCells = sizeR * sizeC;
+
+		// a connected maze with numCells - 1 passages has no loop;
+		// walls on the boundary are never knocked down
+		int numWords = numWallWords();
+		long present = 0;
+		for (int i = 0; i < numWords; i++)
+			present += Long.bitCount(wallWord(i));
+		present -= 64L * numWords - 2L * numCells;
+		if (2L * numCells - present != numCells - 1)
+			return false;
+
+		return search(false) == numCells;
+	} // end of isPerfect()
+
+
+	@Override
+	public void draw() {
+		// draw nothing if visualization is switched off
+		if (!isVisu)
+			return;
+
+		StdDraw.setCanvasSize(900, 900);
+		StdDraw.setXscale(-1, sizeC+1);
+		StdDraw.setYscale(-1, sizeR+1);
+
+		// draw entrance
+		StdDraw.setPenColor(StdDraw.BLUE);
+		if (entrance != null) {
+			StdDraw.filledCircle(entrance.c + 0.5, entrance.r + 0.5, 0.375);
+		}
+
+		// draw exit
+		StdDraw.setPenColor(StdDraw.RED);
+		if (exit != null) {
+			StdDraw.filledCircle(exit.c + 0.5, exit.r + 0.5, 0.375);
+		}
+
+		// boundary walls left open for entrance and exit
+		int entId = index(entrance);
+		int exitId = index(exit);
+		int entDir = openingDir(entId);
+		int exitDir = openingDir(exitId);
+
+		// draw walls, each cell draws its own EAST and NORTH walls
+		StdDraw.setPenColor(StdDraw.BLACK);
+		for (int r = 0; r < sizeR; r++) {
+			for (int c = 0; c < sizeC; c++) {
+				int id = index(r, c);
+				for (int k = 0; k < NUM_DIR; k++) {
+					if (k == NORTHEAST || k == SOUTHWEST)
+						continue;
+					boolean boundary = neighbour(id, k) < 0;
+					if (!boundary && k >= WEST)
+						continue;
+					if (!boundary && !isWall(wallBit(id, k)))
+						continue;
+					if ((id == entId && k == entDir) || (id == exitId && k == exitDir))
+						continue;
+					if (k == EAST) StdDraw.line(c+1, r, c+1, r+1);
+					else if (k == NORTH) StdDraw.line(c, r+1, c+1, r+1);
+					else if (k == WEST) StdDraw.line(c, r, c, r+1);
+					else StdDraw.line(c, r, c+1, r);
+				}
+			}
+		}
+	} // end of draw()
+
+
+	/**
+	 * Direction of the boundary wall opened for an entrance or exit cell.
+	 */
+	private int openingDir(int id) {
+		for (int k = 0; k < NUM_DIR; k++) {
+			if (k == NORTHEAST || k == SOUTHWEST)
+				continue;
+			if (neighbour(id, k) < 0)
+				return k;
+		}
+		return -1;
+	} // end of openingDir()
+
+
+	@Override
+	public void drawFtPrt(Cell cell) {
+		drawFtPrt(index(cell));
+	} // end of drawFtPrt()
+
+
+	@Override
+	public void drawFtPrt(int id) {
+		// record every cell drawn
+		record(id);
+		event(SolverEvents.VISIT, id);
+
+		// draw nothing if visualization is switched off
+		if (!isVisu)
+			return;
+
+		paintFtPrt(id);
+	} // end of drawFtPrt()
+
+
+	@Override
+	public boolean isRecorded(int id) {
+		return hasRecord(id);
+	} // end of isRecorded()
+
+
+	@Override
+	public boolean validate(PrintStream out) {
+		boolean isValid = true;
+		int pathLength = 0;
+
+		int count = search(true);
+		pathLength = exitStep;
+
+		if (pathLength == 0) {
+			isValid = false;
+			out.println("[Validation] Exit is not reached.");
+			out.println("[Validation] Number of cells visited = " + count);
+			out.println("[Validation] Path length of the solution = " + pathLength);
+		}
+
+		for (int i = 0; i < visited.length; i++) {
+			if (isValid && (recordWord(i) & ~visited[i]) != 0) {
+				isValid = false;
+				out.println("[Validation] Visited cell not reachable.");
+				out.println("[Validation] Number of cells visited = " + count);
+				out.println("[Validation] Path length of the solution = " + pathLength);
+			}
+		}
+
+		if (isValid) {
+			out.println("[Validation] Number of cells visited = " + count);
+			out.println("[Validation] Path length of the solution = " + pathLength);
+		}
+
+		return isValid;
+	} // end of validate()
+
+
+	/**
+	 * Breadth first search from the entrance, one level per step.
+	 * @param onlyRecorded Step only into cells recorded by drawFtPrt().
+	 * @return Number of cells visited. exitStep is the step the exit is visited at, from 1, or 0.
+	 */
+	private int search(boolean onlyRecorded) {
+		if (visited.length != numRecordWords())
+			visited = new long[numRecordWords()];
+		else
+			Arrays.fill(visited, 0);
+		queue.clear();
+		exitStep = 0;
+
+		int goal = index(exit);
+		int step = 1;
+		int levelLeft = 1;
+		int count = 0;
+
+		queue.add(index(entrance));
+		setBit(visited, index(entrance));
+
+		while (!queue.isEmpty()) {
+			int id = queue.poll();
+			count++;
+			if (id == goal)
+				exitStep = step;
+
+			int n = passages(id, next);
+			for (int i = 0; i < n; i++) {
+				int cell = next[i];
+				if (!testBit(visited, cell) && (!onlyRecorded || hasRecord(cell))) {
+					setBit(visited, cell);
+					queue.add(cell);
+				}
+			}
+
+			if (--levelLeft == 0) {
+				step++;
+				levelLeft = queue.size();
+			}
+		}
+		return count;
+	} // end of search()
+
+
+	@Override
+	public int indexSize() {
+		return sizeR * sizeC;
+	} // end of indexSize()
+
+
+	@Override
+	public boolean isCell(int id) {
+		return id >= 0 && id < sizeR * sizeC;
+	} // end of isCell()
+
+
+	@Override
+	public int index(int r, int c) {
+		return r * sizeC + c;
+	} // end of index()
+
+
+	@Override
+	public int row(int id) {
+		return id / sizeC;
+	} // end of row()
+
+
+	@Override
+	public int col(int id) {
+		return id % sizeC;
+	} // end of col()
+
+
+	@Override
+	public int neighbour(int id, int dir) {
+		// square cells have no diagonal neighbors
+		if (dir == NORTHEAST || dir == SOUTHWEST)
+			return -1;
+		int r = id / sizeC + deltaR[dir];
+		int c = id % sizeC + deltaC[dir];
+		return isIn(r, c) ? r * sizeC + c : -1;
+	} // end of neighbour()
+
+
+	@Override
+	public boolean isOpen(int id, int dir) {
+		long bit = wallBit(id, dir);
+		return bit >= 0 && !isWall(bit);
+	} // end of isOpen()
+
+
+	@Override
+	public void carve(int id, int dir) {
+		long bit = wallBit(id, dir);
+		if (bit >= 0)
+			clearWall(bit);
+	} // end of carve()
+
+
+	@Override
+	public int passages(int id, int next[]) {
+		int r = id / sizeC;
+		int c = id - r * sizeC;
+		long bit = 2L * id;
+		int n = 0;
+		if (c + 1 < sizeC && !isWall(bit))
+			next[n++] = id + 1;
+		if (r + 1 < sizeR && !isWall(bit + 1))
+			next[n++] = id + sizeC;
+		if (c > 0 && !isWall(bit - 2))
+			next[n++] = id - 1;
+		if (r > 0 && !isWall(bit - 2L * sizeC + 1))
+			next[n++] = id - sizeC;
+		return n;
+	} // end of passages()
+
+
+	@Override
+	public int openDirs(int id) {
+		int r = id / sizeC;
+		int c = id - r * sizeC;
+		long bit = 2L * id;
+		// no branch on the walls, which are random
+		int dirs = 0;
+		if (c + 1 < sizeC)
+			dirs |= openBit(bit) << EAST;
+		if (r + 1 < sizeR)
+			dirs |= openBit(bit + 1) << NORTH;
+		if (c > 0)
+			dirs |= openBit(bit - 2) << WEST;
+		if (r > 0)
+			dirs |= openBit(bit - 2L * sizeC + 1) << SOUTH;
+		return dirs;
+	} // end of openDirs()
+
+
+	/**
+	 * @return 1 if a wall bit is clear, otherwise 0.
+	 */
+	private int openBit(long bit) {
+		return (int) (~wallWord((int) (bit >>> 6)) >>> bit) & 1;
+	} // end of openBit()
+
+
+	@Override
+	public int tunnel(int id) {
+		return -1;
+	} // end of tunnel()
+
+} // end of class CompactNormalMaze
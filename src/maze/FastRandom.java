@@ -0,0 +1,91 @@
+package maze;
+
+import java.util.Random;
+
+/**
+ * Random number generator based on xoroshiro128**, for use wherever a
+ * java.util.Random is expected.
+ *
+ * java.util.Random updates its state with an atomic compare-and-set on every
+ * call; this generator keeps two plain longs, as an instance is only used by
+ * one generator or solver at a time. Every method of Random (nextInt(bound),
+ * nextDouble(), ...) is built on next(bits), so all of them use the new state.
+ *
+ */
+public class FastRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * names of the supported random number generators, see create()
+	 */
+	public final static String RANDOM = "random";
+	public final static String FAST = "fast";
+
+	private long s0;
+	private long s1;
+
+	/**
+	 * construct generator with a seed
+	 * @param seed The seed.
+	 */
+	public FastRandom(long seed) {
+		// Random(long) calls setSeed(seed)
+		super(seed);
+	} // end of FastRandom()
+
+	/**
+	 * construct generator with a seed from the clock
+	 */
+	public FastRandom() {
+		this(System.nanoTime());
+	} // end of FastRandom()
+
+	/**
+	 * Create a random number generator by name.
+	 * @param name RANDOM for java.util.Random, FAST for FastRandom.
+	 * @param seed The seed.
+	 * @return The generator, null if the name is unknown.
+	 */
+	public static Random create(String name, long seed) {
+		switch (name) {
+		case RANDOM:
+			return new Random(seed);
+		case FAST:
+			return new FastRandom(seed);
+		default:
+			return null;
+		}
+	} // end of create()
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		// expand the seed with splitmix64, so the state is never all zero
+		long x = seed;
+		s0 = mix(x += 0x9E3779B97F4A7C15L);
+		s1 = mix(x += 0x9E3779B97F4A7C15L);
+	} // end of setSeed()
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	} // end of next()
+
+	@Override
+	public long nextLong() {
+		long a = s0;
+		long b = s1;
+		long result = Long.rotateLeft(a * 5, 7) * 9;
+		b ^= a;
+		s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+		s1 = Long.rotateLeft(b, 37);
+		return result;
+	} // end of nextLong()
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	} // end of mix()
+
+} // end of class FastRandom
@@ -0,0 +1,189 @@
+package maze;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Draws the foot prints of drawFtPrt() of a visualised maze on a thread of its own, so
+ * solving never waits for StdDraw or Swing.
+ *
+ * The solving thread only puts cell indices into a LongRing. Once a frame, at most
+ * FRAMES_PER_SECOND times a second, the painter takes the indices out, draws their foot
+ * prints into the offscreen image of StdDraw, and copies to the screen and repaints only
+ * the tiles of the window (1/TILES of the maze a side) they fall in, rather than the whole
+ * window once per foot print. If the ring is full, nothing is lost: the maze records every
+ * cell, and the painter draws every recorded cell again, RESCAN_CELLS cell indices a frame.
+ *
+ * The painter is a daemon thread, started by the first foot print, and keeps StdDraw in
+ * animation mode (see StdDraw.show(int)) from then on. The thread ends after IDLE_FRAMES
+ * frames without foot prints, and the next foot print starts it again.
+ *
+ * As a consumer of SolverEvents, the painter draws the VISIT events of a maze not visualised
+ * itself (isVisu false), as only one thread may put foot prints in.
+ *
+ * @author rommel gaddi
+ */
+public class FootprintPainter implements Runnable, SolverEvents.Consumer {
+
+	public final static int FRAMES_PER_SECOND = 60;
+	private final static int CAPACITY = 1 << 16;
+	private final static int TILES = 16;
+	// cell indices looked at a frame when drawing every recorded cell again
+	private final static int RESCAN_CELLS = 1 << 16;
+	// frames without foot prints before the thread ends, one second
+	private final static int IDLE_FRAMES = FRAMES_PER_SECOND;
+	// radius of a foot print, as drawn by drawFtPrt() before
+	private final static double RADIUS = 0.25;
+
+	private Maze maze;
+	private long framePeriod;
+	private LongRing queue = new LongRing(CAPACITY);
+	// set by the solving thread when the ring is full
+	private volatile boolean isOverflown = false;
+	// true from start() until the thread finds nothing to draw for IDLE_FRAMES frames
+	private final AtomicBoolean isRunning = new AtomicBoolean(false);
+
+	// painter thread only
+	private long taken[] = new long[CAPACITY];
+	private boolean isDirty[] = new boolean[TILES * TILES];
+	// next cell index to draw again after an overflow, -1 if none
+	private int rescanFrom = -1;
+	private double tileWidth;
+	private double tileHeight;
+
+
+	/**
+	 * construct the painter
+	 * @param maze Maze to draw the foot prints of, drawn by draw() beforehand.
+	 * @param framesPerSecond Most frames drawn a second.
+	 */
+	public FootprintPainter(Maze maze, int framesPerSecond) {
+		this.maze = maze;
+		framePeriod = 1000000000L / framesPerSecond;
+		// the drawing spans from -1 to one past the maze, the hex maze half a cell more
+		tileWidth = (maze.sizeC + 2.5) / TILES;
+		tileHeight = (maze.sizeR + 2.0) / TILES;
+	} // end of FootprintPainter()
+
+
+	/**
+	 * Start the painter thread, unless it is running.
+	 */
+	public void start() {
+		// a read and a write, so the thread ending sees the foot prints added before
+		if (isRunning.getAndSet(true))
+			return;
+		Thread thread = new Thread(this, "FootprintPainter");
+		thread.setDaemon(true);
+		thread.start();
+	} // end of start()
+
+
+	/**
+	 * Queue a foot print, from the solving thread, and start the painter thread if it has
+	 * ended. Never waits.
+	 * @param id Index of a cell, recorded by the maze.
+	 */
+	void add(int id) {
+		if (!queue.offer(id))
+			isOverflown = true;
+		start();
+	} // end of add()
+
+
+	@Override
+	public void event(int type, int id) {
+		if (type == SolverEvents.VISIT)
+			add(id);
+	} // end of event()
+
+
+	@Override
+	public void run() {
+		// shapes are only drawn offscreen from now on, and shown by showRegion()
+		StdDraw.show(0);
+		StdDraw.setPenColor(StdDraw.GRAY);
+
+		long next = System.nanoTime();
+		int idleFrames = 0;
+		while (true) {
+			idleFrames = paint() ? 0 : idleFrames + 1;
+			if (idleFrames == IDLE_FRAMES) {
+				isRunning.getAndSet(false);
+				// a foot print added before it was cleared is left to this thread, unless
+				// a thread started by a later one takes it
+				if (queue.isEmpty() && !isOverflown || !isRunning.compareAndSet(false, true))
+					return;
+				idleFrames = 0;
+			}
+			next += framePeriod;
+			long wait = next - System.nanoTime();
+			if (wait <= 0) {
+				next = System.nanoTime();
+				continue;
+			}
+			try {
+				Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	} // end of run()
+
+
+	/**
+	 * Draw one frame: the foot prints queued since the last frame, the next cells to draw
+	 * again after an overflow, and show the tiles they are in.
+	 * @return True if anything was drawn.
+	 */
+	private boolean paint() {
+		if (isOverflown) {
+			// clear the flag first, cells recorded after it are in the ring or in a later
+			// overflow; the cells lost may be anywhere, so start again from the first
+			isOverflown = false;
+			rescanFrom = 0;
+		}
+		int n = queue.drain(taken);
+		for (int i = 0; i < n; i++)
+			dot((int) taken[i]);
+		boolean isDrawn = n > 0 || rescanFrom >= 0;
+		if (rescanFrom >= 0) {
+			int to = (int) Math.min((long) rescanFrom + RESCAN_CELLS, maze.indexSize());
+			for (int id = rescanFrom; id < to; id++)
+				if (maze.isCell(id) && maze.isRecorded(id))
+					dot(id);
+			rescanFrom = to == maze.indexSize() ? -1 : to;
+		}
+
+		// show every run of dirty tiles in a row of tiles at once, with half a cell of
+		// margin for foot prints across the edge of a tile
+		for (int row = 0; row < TILES; row++) {
+			int col = 0;
+			while (col < TILES) {
+				if (!isDirty[row * TILES + col]) {
+					col++;
+					continue;
+				}
+				int end = col;
+				while (end < TILES && isDirty[row * TILES + end])
+					isDirty[row * TILES + end++] = false;
+				StdDraw.showRegion(col * tileWidth - 1.5, row * tileHeight - 1.5, end * tileWidth - 0.5, (row + 1) * tileHeight - 0.5);
+				col = end;
+			}
+		}
+		return isDrawn;
+	} // end of paint()
+
+
+	/**
+	 * Draw the foot print of a cell offscreen, and mark its tile dirty.
+	 */
+	private void dot(int id) {
+		double x = maze.centreX(id);
+		double y = maze.centreY(id);
+		StdDraw.filledCircle(x, y, RADIUS);
+		int col = Math.min(TILES - 1, Math.max(0, (int) ((x + 1) / tileWidth)));
+		int row = Math.min(TILES - 1, Math.max(0, (int) ((y + 1) / tileHeight)));
+		isDirty[row * TILES + col] = true;
+	} // end of dot()
+
+} // end of class FootprintPainter
@@ -1,5 +1,6 @@
 package maze;
 
+import java.io.PrintStream;
 import java.util.*;
 
 import maze.StdDraw;
@@ -38,6 +39,7 @@ public class HexMaze extends NormalMaze {
 		sizeR = rs;
 		sizeC = cs;
 		sizeTunnel = tunnelList.size();
+		mapC = sizeC + (sizeR + 1) / 2;
 		
 		// set up map matrix
 		map = new Cell[sizeR][sizeC + (sizeR + 1) / 2];
@@ -74,40 +76,6 @@ public class HexMaze extends NormalMaze {
 	} // end of initMaze()
 	
 	
-	@Override
-	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell currCell = queue.poll();
-			visited[currCell.r][currCell.c - (currCell.r + 1) / 2] = true;
-			int visitedNeigh = 0;
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell nextCell = currCell.neigh[i];
-				if (!isIn(nextCell) || currCell.wall[i].present)
-					continue;
-				if (visited[nextCell.r][nextCell.c - (nextCell.r + 1) / 2])
-					visitedNeigh += 1; 
-				else
-					queue.add(nextCell);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
-	} // end of isPerfect()
-	
-	
 	@Override
 	public void draw() {
 		// draw nothing if visualization is switched off
@@ -177,66 +145,27 @@ public class HexMaze extends NormalMaze {
 	public void drawFtPrt(Cell cell) {
                 // record every cell drawn
                 isRecorded[cell.r][cell.c] = true;
+		event(SolverEvents.VISIT, cell);
 
 		// draw nothing if visualization is switched off
 		if (!isVisu)
 			return;
 		
-		StdDraw.setPenColor(StdDraw.GRAY);
-		StdDraw.filledCircle(cell.r % 2 * 0.5 + cell.c - (cell.r + 1) / 2 + 0.5, cell.r + 0.5, 0.25);
+		paintFtPrt(cell.r * mapC + cell.c);
 	} // end of drawFtPrt()
 	
 
-        @Override
-        public boolean validate() {
-                boolean isValid = true;
-                int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC + (sizeR + 1) / 2];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
-
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
-
-                if (stepCount[exit.r][exit.c] == 0) {
-                        isValid = false;
-                        System.out.println("[Validation] Exit is not reached.");
-                }
-                else {
-                        pathLength = stepCount[exit.r][exit.c];
-                }
-
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC + (sizeR + 1) / 2; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
-                                        isValid = false;
-                                        System.out.println("[Validation] Visited cell not reachable.");
-                                }
-                        }
-                }
-
-                if (isValid) {
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
+	@Override
+	protected double centreX(int id) {
+		int r = row(id);
+		return r % 2 * 0.5 + col(id) - (r + 1) / 2 + 0.5;
+	} // end of centreX()
+	
 
-                return isValid;
-        } // end of validate()
+	@Override
+	public boolean validate(PrintStream out) {
+		return validate(out, false);
+	} // end of validate()
 
 
 } // end of class HexMaze
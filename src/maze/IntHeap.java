@@ -0,0 +1,133 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int ids (e.g. cell indices) with int keys.
+ *
+ * Ids lie in [0, capacity) and each id is in the heap at most once; the
+ * position of every id is kept, so the key of an id in the heap can be
+ * decreased in O(log n). No object is created per id.
+ */
+public class IntHeap {
+
+	private int heap[];
+	private int pos[];
+	private int key[];
+	private int size = 0;
+
+	/**
+	 * construct an empty heap
+	 * @param capacity Number of possible ids.
+	 */
+	public IntHeap(int capacity) {
+		heap = new int[16];
+		pos = new int[capacity];
+		key = new int[capacity];
+		Arrays.fill(pos, -1);
+	} // end of IntHeap()
+
+	/**
+	 * Add an id, or lower its key if it is already in the heap with a larger key.
+	 * @param id The id.
+	 * @param k The key.
+	 */
+	public void update(int id, int k) {
+		int i = pos[id];
+		if (i < 0) {
+			if (size == heap.length)
+				heap = Arrays.copyOf(heap, heap.length << 1);
+			i = size++;
+		} else if (k >= key[id]) {
+			return;
+		}
+		key[id] = k;
+		siftUp(id, i);
+	} // end of update()
+
+	/**
+	 * Remove the id with the smallest key.
+	 * @return The removed id. The heap must not be empty.
+	 */
+	public int poll() {
+		int min = heap[0];
+		pos[min] = -1;
+		int last = heap[--size];
+		if (size > 0)
+			siftDown(last, 0);
+		return min;
+	} // end of poll()
+
+	/**
+	 * Check whether an id is in the heap.
+	 * @param id The id.
+	 * @return True if in the heap. Otherwise false.
+	 */
+	public boolean contains(int id) {
+		return pos[id] >= 0;
+	} // end of contains()
+
+	public boolean isEmpty() {
+		return size == 0;
+	} // end of isEmpty()
+
+	public int size() {
+		return size;
+	} // end of size()
+
+	/**
+	 * @return Number of possible ids.
+	 */
+	public int capacity() {
+		return pos.length;
+	} // end of capacity()
+
+	/**
+	 * Remove every id, keeping the arrays for reuse.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			pos[heap[i]] = -1;
+		size = 0;
+	} // end of clear()
+
+	/**
+	 * Move id up from position i until its parent has a smaller or equal key.
+	 */
+	private void siftUp(int id, int i) {
+		int k = key[id];
+		while (i > 0) {
+			int p = (i - 1) >>> 1;
+			int up = heap[p];
+			if (key[up] <= k)
+				break;
+			heap[i] = up;
+			pos[up] = i;
+			i = p;
+		}
+		heap[i] = id;
+		pos[id] = i;
+	} // end of siftUp()
+
+	/**
+	 * Move id down from position i until its children have larger or equal keys.
+	 */
+	private void siftDown(int id, int i) {
+		int k = key[id];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && key[heap[child + 1]] < key[heap[child]])
+				child++;
+			int down = heap[child];
+			if (k <= key[down])
+				break;
+			heap[i] = down;
+			pos[down] = i;
+			i = child;
+		}
+		heap[i] = id;
+		pos[id] = i;
+	} // end of siftDown()
+
+} // end of class IntHeap
@@ -0,0 +1,123 @@
+package maze;
+
+/**
+ * FIFO queue of int values (e.g. cell indices) stored in a ring buffer.
+ * Values can also be read by position and removed from the tail or from
+ * any position, so it can serve as an indexable deque.
+ *
+ * The buffer doubles when full, so it only grows to the largest number of
+ * values queued at the same time, and no object is created per value.
+ */
+public class IntQueue {
+
+	private int buf[];
+	private int head = 0;
+	private int size = 0;
+
+	/**
+	 * construct an empty queue
+	 * @param capacity Initial capacity of the buffer.
+	 */
+	public IntQueue(int capacity) {
+		int cap = 16;
+		while (cap < capacity && cap < (1 << 30))
+			cap <<= 1;
+		buf = new int[cap];
+	} // end of IntQueue()
+
+	/**
+	 * default constructor
+	 */
+	public IntQueue() {
+		this(16);
+	} // end of IntQueue()
+
+	/**
+	 * Add a value at the tail of the queue.
+	 * @param value The value to add.
+	 */
+	public void add(int value) {
+		if (size == buf.length)
+			grow();
+		buf[(head + size) & (buf.length - 1)] = value;
+		size++;
+	} // end of add()
+
+	/**
+	 * Remove the value at the head of the queue.
+	 * @return The removed value. The queue must not be empty.
+	 */
+	public int poll() {
+		int value = buf[head];
+		head = (head + 1) & (buf.length - 1);
+		size--;
+		return value;
+	} // end of poll()
+
+	/**
+	 * Remove the value at the tail of the queue.
+	 * @return The removed value. The queue must not be empty.
+	 */
+	public int pollLast() {
+		size--;
+		return buf[(head + size) & (buf.length - 1)];
+	} // end of pollLast()
+
+	/**
+	 * Value at a position, counted from the head of the queue.
+	 * @param i Position, in [0, size()).
+	 * @return The value.
+	 */
+	public int get(int i) {
+		return buf[(head + i) & (buf.length - 1)];
+	} // end of get()
+
+	/**
+	 * Remove the value at a position in O(1), without keeping the order: the head
+	 * value is moved into the hole, so it is no longer the head. The tail is removed
+	 * as is, and every value other than the head keeps its place.
+	 * @param i Position, in [0, size()).
+	 * @return The removed value.
+	 */
+	public int removeAt(int i) {
+		int mask = buf.length - 1;
+		int value = buf[(head + i) & mask];
+		if (i == size - 1) {
+			size--;
+			return value;
+		}
+		buf[(head + i) & mask] = buf[head];
+		head = (head + 1) & mask;
+		size--;
+		return value;
+	} // end of removeAt()
+
+	public boolean isEmpty() {
+		return size == 0;
+	} // end of isEmpty()
+
+	public int size() {
+		return size;
+	} // end of size()
+
+	/**
+	 * Remove every value, keeping the buffer for reuse.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+	} // end of clear()
+
+	/**
+	 * Double the buffer, moving the values to the front of the new buffer.
+	 */
+	private void grow() {
+		int next[] = new int[buf.length << 1];
+		int first = buf.length - head;
+		System.arraycopy(buf, head, next, 0, first);
+		System.arraycopy(buf, 0, next, first, head);
+		buf = next;
+		head = 0;
+	} // end of grow()
+
+} // end of class IntQueue
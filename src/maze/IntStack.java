@@ -0,0 +1,111 @@
+package maze;
+
+/**
+ * LIFO stack of int values (e.g. cell indices) stored in a growable array,
+ * so no object is created per value.
+ */
+public class IntStack {
+
+	private int buf[];
+	private int size = 0;
+
+	/**
+	 * construct an empty stack
+	 * @param capacity Initial capacity of the array.
+	 */
+	public IntStack(int capacity) {
+		buf = new int[Math.max(capacity, 16)];
+	} // end of IntStack()
+
+	/**
+	 * default constructor
+	 */
+	public IntStack() {
+		this(16);
+	} // end of IntStack()
+
+	/**
+	 * Push a value on top of the stack.
+	 * @param value The value to push.
+	 */
+	public void push(int value) {
+		if (size == buf.length) {
+			int next[] = new int[buf.length << 1];
+			System.arraycopy(buf, 0, next, 0, size);
+			buf = next;
+		}
+		buf[size++] = value;
+	} // end of push()
+
+	/**
+	 * Remove the value on top of the stack.
+	 * @return The removed value. The stack must not be empty.
+	 */
+	public int pop() {
+		return buf[--size];
+	} // end of pop()
+
+	/**
+	 * Value on top of the stack, without removing it.
+	 * @return The top value. The stack must not be empty.
+	 */
+	public int peek() {
+		return buf[size - 1];
+	} // end of peek()
+
+	/**
+	 * Value at a position, counted from the bottom of the stack.
+	 * @param i Position, in [0, size()).
+	 * @return The value.
+	 */
+	public int get(int i) {
+		return buf[i];
+	} // end of get()
+
+	/**
+	 * Remove the value at a position in O(1), moving the top value into its place.
+	 * @param i Position, in [0, size()).
+	 * @return The removed value.
+	 */
+	public int removeAt(int i) {
+		int value = buf[i];
+		buf[i] = buf[--size];
+		return value;
+	} // end of removeAt()
+
+	public boolean isEmpty() {
+		return size == 0;
+	} // end of isEmpty()
+
+	public int size() {
+		return size;
+	} // end of size()
+
+	/**
+	 * Remove every value, keeping the array for reuse.
+	 */
+	public void clear() {
+		size = 0;
+	} // end of clear()
+
+	/**
+	 * Reverse the order of the values, so the bottom value is on top.
+	 */
+	public void reverse() {
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			int value = buf[i];
+			buf[i] = buf[j];
+			buf[j] = value;
+		}
+	} // end of reverse()
+
+	/**
+	 * @return Copy of the values, from the bottom of the stack to the top.
+	 */
+	public int[] toArray() {
+		int values[] = new int[size];
+		System.arraycopy(buf, 0, values, 0, size);
+		return values;
+	} // end of toArray()
+
+} // end of class IntStack
@@ -0,0 +1,89 @@
+package maze;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of longs passed from one thread to another without locks: one producer
+ * thread calls offer(), one consumer thread calls drain(). Neither ever waits for the
+ * other; offer() fails when the ring is full.
+ *
+ * The longs are kept in an array used as a ring. Each side owns one counter, written
+ * with release semantics after the longs it covers, and keeps a stale copy of the other
+ * side's counter, read again only when the ring looks full (or empty).
+ *
+ * @author rommel gaddi
+ */
+public class LongRing {
+
+	private final long buffer[];
+	private final int mask;
+	// number of longs put in, written by the producer
+	private final AtomicLong tail = new AtomicLong();
+	// number of longs taken out, written by the consumer
+	private final AtomicLong head = new AtomicLong();
+	// copy of head kept by the producer, and of tail kept by the consumer
+	private long headCache = 0;
+	private long tailCache = 0;
+
+
+	/**
+	 * construct the ring
+	 * @param capacity Number of longs the ring holds, rounded up to a power of 2.
+	 */
+	public LongRing(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		buffer = new long[size];
+		mask = size - 1;
+	} // end of LongRing()
+
+
+	/**
+	 * Put a long in, producer thread only.
+	 * @return True if put in, false if the ring is full.
+	 */
+	public boolean offer(long value) {
+		long t = tail.get();
+		if (t - headCache == buffer.length) {
+			headCache = head.get();
+			if (t - headCache == buffer.length)
+				return false;
+		}
+		buffer[(int) t & mask] = value;
+		tail.lazySet(t + 1);
+		return true;
+	} // end of offer()
+
+
+	/**
+	 * Take out the longs put in so far, in order, consumer thread only.
+	 * @param into Receives the longs.
+	 * @return Number of longs taken out, at most into.length.
+	 */
+	public int drain(long into[]) {
+		long h = head.get();
+		if (h == tailCache)
+			tailCache = tail.get();
+		int n = (int) Math.min(tailCache - h, into.length);
+		for (int i = 0; i < n; i++)
+			into[i] = buffer[(int) (h + i) & mask];
+		head.lazySet(h + n);
+		return n;
+	} // end of drain()
+
+
+	/**
+	 * @return True if there is nothing to take out, consumer thread only.
+	 */
+	public boolean isEmpty() {
+		return head.get() == tail.get();
+	} // end of isEmpty()
+
+
+	/**
+	 * @return Capacity of the ring.
+	 */
+	public int capacity() {
+		return buffer.length;
+	} // end of capacity()
+
+} // end of class LongRing
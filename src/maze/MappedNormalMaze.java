@@ -0,0 +1,240 @@
+package maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * CompactNormalMaze keeping its bitsets off the heap, in a memory mapped maze file
+ * (see MazeFile), for mazes larger than the heap or physical memory.
+ *
+ * The wall bits are the wall bits of the maze file, so a maze generated here is saved as
+ * it is carved, and a maze file can be solved without loading it (MazeFile.map()). The
+ * cells recorded by drawFtPrt() are kept after the walls. The file is mapped in parts of
+ * 1 GB, and pages are read and written back by the operating system as needed.
+ *
+ * A maze file opened by MazeFile.map() is only read: its walls are mapped read only, and
+ * cannot be carved, and the cells recorded are kept in a scratch file instead.
+ *
+ * Searches of this maze (traversal()) keep their per-cell state in MappedTraversal
+ * scratch files next to the maze file. Scratch files are deleted when the JVM exits.
+ * isPerfect() and validate() keep one bit per cell on the heap.
+ *
+ * @author rommel gaddi
+ */
+public class MappedNormalMaze extends CompactNormalMaze {
+
+	// longs per mapped part
+	private final static int PART_SHIFT = 27;
+	private final static int PART_MASK = (1 << PART_SHIFT) - 1;
+
+	private String fileName;
+	private MappedByteBuffer wallParts[] = null;
+	private MappedByteBuffer recordParts[] = null;
+	// last word of the walls of a file opened read only, which may be short in the file,
+	// with the bits past the last wall set; -1 if the file is mapped to be written
+	private int tailIndex = -1;
+	private long tailWord = 0;
+
+
+	/**
+	 * construct the maze
+	 * @param fileName Maze file to keep the maze in, created or overwritten by initMaze().
+	 */
+	public MappedNormalMaze(String fileName) {
+		this.fileName = fileName;
+	} // end of MappedNormalMaze()
+
+
+	/**
+	 * Create the maze file: the header, then every wall present, then no cell recorded.
+	 * @throws UncheckedIOException If the file cannot be written.
+	 */
+	@Override
+	protected void initBits() {
+		ByteBuffer header = MazeFile.header(NORMAL, sizeR, sizeC, entrance == null ? -1 : entrance.r, entrance == null ? -1 : entrance.c,
+				exit == null ? -1 : exit.r, exit == null ? -1 : exit.c, new ArrayList<int[]>(), 0);
+		long start = header.remaining();
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "rw"); FileChannel channel = file.getChannel()) {
+			file.setLength(0);
+			channel.write(header, 0);
+			mapBits(file, channel, start);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		for (int i = 0; i < numWallWords(); i++)
+			wallParts[i >>> PART_SHIFT].putLong((i & PART_MASK) << 3, -1L);
+	} // end of initBits()
+
+
+	/**
+	 * Map the walls of an existing maze file read only, for MazeFile.map(). The file is left
+	 * as it is; cells recorded are kept in a new scratch file.
+	 * @param start Position of the wall bits.
+	 * @param numBits Number of wall bits.
+	 */
+	void open(int rs, int cs, int entR, int entC, int exitR, int exitC, long start, long numBits) throws IOException {
+		sizeR = rs;
+		sizeC = cs;
+		sizeTunnel = 0;
+		if (isIn(entR, entC))
+			entrance = new Cell(entR, entC);
+		if (isIn(exitR, exitC))
+			exit = new Cell(exitR, exitC);
+
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			tailIndex = numWallWords() - 1;
+			wallParts = map(channel, MapMode.READ_ONLY, start, tailIndex);
+
+			// bytes of the last word not written by WallBitWriter, and bits past the last wall,
+			// are walls present
+			ByteBuffer tail = ByteBuffer.allocate(8);
+			long at = start + 8L * tailIndex;
+			int n;
+			while (tail.hasRemaining() && (n = channel.read(tail, at)) >= 0)
+				at += n;
+			long word = -1L;
+			for (int i = 0; i < tail.position(); i++)
+				word = word & ~(0xFFL << (8 * i)) | (tail.get(i) & 0xFFL) << (8 * i);
+			if ((numBits & 63) != 0)
+				word |= -1L << numBits;
+			tailWord = word;
+		}
+
+		try (RandomAccessFile file = new RandomAccessFile(scratchFile("records"), "rw"); FileChannel channel = file.getChannel()) {
+			file.setLength(8L * numRecordWords());
+			recordParts = map(channel, MapMode.READ_WRITE, 0, numRecordWords());
+		}
+	} // end of open()
+
+
+	/**
+	 * Map the walls from a position of the file, and the records after them.
+	 */
+	private void mapBits(RandomAccessFile file, FileChannel channel, long start) throws IOException {
+		long recordStart = start + 8L * numWallWords();
+		file.setLength(recordStart + 8L * numRecordWords());
+		wallParts = map(channel, MapMode.READ_WRITE, start, numWallWords());
+		recordParts = map(channel, MapMode.READ_WRITE, recordStart, numRecordWords());
+	} // end of mapBits()
+
+
+	/**
+	 * Map longs of a file, 2^PART_SHIFT longs per part.
+	 */
+	private static MappedByteBuffer[] map(FileChannel channel, MapMode mode, long from, int numWords) throws IOException {
+		MappedByteBuffer parts[] = new MappedByteBuffer[(int) (((long) numWords + PART_MASK) >>> PART_SHIFT)];
+		for (int i = 0; i < parts.length; i++) {
+			long first = (long) i << PART_SHIFT;
+			long n = Math.min(1L << PART_SHIFT, numWords - first);
+			parts[i] = channel.map(mode, from + 8 * first, 8 * n);
+			parts[i].order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return parts;
+	} // end of map()
+
+
+	/**
+	 * Write the maze back to its file, e.g. once generated.
+	 */
+	public void force() {
+		for (MappedByteBuffer part : wallParts)
+			part.force();
+	} // end of force()
+
+
+	/**
+	 * Create a scratch file next to the maze file, deleted when the JVM exits.
+	 */
+	private File scratchFile(String prefix) throws IOException {
+		File scratch = File.createTempFile(prefix, ".scratch", new File(fileName).getAbsoluteFile().getParentFile());
+		scratch.deleteOnExit();
+		return scratch;
+	} // end of scratchFile()
+
+
+	@Override
+	protected long wallWord(int i) {
+		if (i == tailIndex)
+			return tailWord;
+		return wallParts[i >>> PART_SHIFT].getLong((i & PART_MASK) << 3);
+	} // end of wallWord()
+
+
+	@Override
+	protected boolean isWall(long bit) {
+		return (wallWord((int) (bit >>> 6)) & (1L << bit)) != 0;
+	} // end of isWall()
+
+
+	/**
+	 * @throws UnsupportedOperationException If the maze file was opened read only.
+	 */
+	@Override
+	protected void clearWall(long bit) {
+		if (tailIndex >= 0)
+			throw new UnsupportedOperationException(fileName + " is mapped read only.");
+		int i = (int) (bit >>> 6);
+		MappedByteBuffer part = wallParts[i >>> PART_SHIFT];
+		int at = (i & PART_MASK) << 3;
+		part.putLong(at, part.getLong(at) & ~(1L << bit));
+	} // end of clearWall()
+
+
+	@Override
+	protected long recordWord(int i) {
+		return recordParts[i >>> PART_SHIFT].getLong((i & PART_MASK) << 3);
+	} // end of recordWord()
+
+
+	@Override
+	protected boolean hasRecord(int id) {
+		return (recordWord(id >>> 6) & (1L << id)) != 0;
+	} // end of hasRecord()
+
+
+	@Override
+	protected void record(int id) {
+		int i = id >>> 6;
+		MappedByteBuffer part = recordParts[i >>> PART_SHIFT];
+		int at = (i & PART_MASK) << 3;
+		part.putLong(at, part.getLong(at) | 1L << id);
+	} // end of record()
+
+
+	/**
+	 * Traversal keeping its per-cell state in a scratch file next to the maze file.
+	 * A traversal used on the heap before keeps the mapped one for its next turn (see
+	 * MazeTraversal.counterpart), so a caller going back and forth between mazes on the
+	 * heap and mapped mazes creates one scratch file, not one per switch.
+	 * @throws UncheckedIOException If the scratch file cannot be created.
+	 */
+	@Override
+	public MazeTraversal traversal(MazeTraversal reuse) {
+		if (reuse instanceof MappedTraversal)
+			return reuse;
+		if (reuse != null && reuse.counterpart instanceof MappedTraversal)
+			return reuse.counterpart;
+		try {
+			MazeTraversal traversal = new MappedTraversal(scratchFile("traversal"));
+			if (reuse != null) {
+				reuse.counterpart = traversal;
+				traversal.counterpart = reuse;
+			}
+			return traversal;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	} // end of traversal()
+
+} // end of class MappedNormalMaze
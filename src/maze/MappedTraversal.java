@@ -0,0 +1,101 @@
+package maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * MazeTraversal keeping the mark and distance of every cell off the heap, in a
+ * memory mapped file, for mazes too large for per-cell arrays on the heap.
+ *
+ * The mark and distance of a cell are stored next to each other (8 bytes per cell),
+ * so a search touches one page per cell, and the file is mapped in parts of 1 GB.
+ * Pages are read and written back by the operating system as needed, so the file
+ * may be larger than physical memory. Only the queue stays on the heap; it holds the
+ * cells at the front of the search.
+ *
+ * @author rommel gaddi
+ */
+public class MappedTraversal extends MazeTraversal {
+
+	// cells per mapped part, 8 bytes each
+	private final static int PART_SHIFT = 27;
+	private final static int PART_MASK = (1 << PART_SHIFT) - 1;
+
+	private File file;
+	private MappedByteBuffer parts[] = new MappedByteBuffer[0];
+	private int capacity = 0;
+
+
+	/**
+	 * construct the traversal
+	 * @param file File to keep the marks and distances in, created or emptied.
+	 */
+	public MappedTraversal(File file) throws IOException {
+		this.file = file;
+		try (RandomAccessFile scratch = new RandomAccessFile(file, "rw")) {
+			scratch.setLength(0);
+		}
+	} // end of MappedTraversal()
+
+
+	@Override
+	protected void ensureCapacity(int size) {
+		if (size <= capacity)
+			return;
+
+		// a longer file keeps the marks written so far, and reads 0 for the new cells
+		try (RandomAccessFile scratch = new RandomAccessFile(file, "rw"); FileChannel channel = scratch.getChannel()) {
+			scratch.setLength(8L * size);
+			MappedByteBuffer next[] = new MappedByteBuffer[(int) (((long) size + PART_MASK) >>> PART_SHIFT)];
+			for (int i = 0; i < next.length; i++) {
+				long from = (long) i << PART_SHIFT;
+				long n = Math.min(1L << PART_SHIFT, size - from);
+				next[i] = channel.map(MapMode.READ_WRITE, 8 * from, 8 * n);
+				next[i].order(ByteOrder.nativeOrder());
+			}
+			parts = next;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		capacity = size;
+	} // end of ensureCapacity()
+
+
+	@Override
+	protected void clearMarks() {
+		for (MappedByteBuffer part : parts)
+			for (int i = 0; i < part.limit(); i += 8)
+				part.putInt(i, 0);
+	} // end of clearMarks()
+
+
+	@Override
+	protected int mark(int id) {
+		return parts[id >>> PART_SHIFT].getInt((id & PART_MASK) << 3);
+	} // end of mark()
+
+
+	@Override
+	protected void setMark(int id, int value) {
+		parts[id >>> PART_SHIFT].putInt((id & PART_MASK) << 3, value);
+	} // end of setMark()
+
+
+	@Override
+	public int distance(int id) {
+		return parts[id >>> PART_SHIFT].getInt(((id & PART_MASK) << 3) + 4);
+	} // end of distance()
+
+
+	@Override
+	protected void setDistance(int id, int dist) {
+		parts[id >>> PART_SHIFT].putInt(((id & PART_MASK) << 3) + 4, dist);
+	} // end of setDistance()
+
+} // end of class MappedTraversal
@@ -1,5 +1,6 @@
 package maze;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -13,7 +14,12 @@ import java.util.List;
  * all cells are stored in matrix map[][], 
  * map[r][c].r == r and map[r][c].c == c,  
  * all neighbor cell objects are assigned correctly for each cell, 
- * and same wall object are shared by two cell objects next to the wall
+ * and same wall object are shared by two cell objects next to the wall.
+ * 
+ * Every maze also exposes its cells by an integer index (see index(int, int)),
+ * so that algorithms can work on primitive arrays instead of Cell objects.
+ * Compact mazes (e.g. CompactNormalMaze) leave map[][] null and can only be
+ * used through the index functions.
  */
 public abstract class Maze {
 	
@@ -51,6 +57,11 @@ public abstract class Maze {
 	public Cell entrance;
 	public Cell exit;
 	public boolean isVisu = true;
+	// stream the solver publishes its events to (see SolverEvents), none if null
+	public SolverEvents events = null;
+	
+	// draws the foot prints of a visualised maze, started by the first one
+	private FootprintPainter painter = null;
 	
 	/**
 	 * To test whether the input entrance and exit locations are valid.
@@ -90,9 +101,213 @@ public abstract class Maze {
 	public abstract void drawFtPrt(Cell cell);
 
 
-        /**
-         * Show validation result of whether the maze is solved
-         */
-        public abstract boolean validate();
+	/**
+	 * Show validation result of whether the maze is solved
+	 */
+	public boolean validate() {
+		return validate(System.out);
+	} // end of validate()
+
+
+	/**
+	 * Check whether the maze is solved, as validate()
+	 * @param out Receives the validation result.
+	 * @return True if the solution is valid. Otherwise false.
+	 */
+	public abstract boolean validate(PrintStream out);
+
+
+	/**
+	 * index based access to cells
+	 */
+	
+	/**
+	 * Size of the cell index space.
+	 * @return Every cell index lies in [0, indexSize()). Some indices may not be cells, see isCell(int).
+	 */
+	public abstract int indexSize();
+	
+	/**
+	 * Check whether an index refers to a cell of the maze.
+	 * @param id Cell index.
+	 * @return True if the index is a cell in the maze. Otherwise false.
+	 */
+	public abstract boolean isCell(int id);
+	
+	/**
+	 * Index of the cell at map position (r, c).
+	 * @param r Row coordinate, as in Cell.r.
+	 * @param c Column coordinate, as in Cell.c.
+	 * @return Index of the cell.
+	 */
+	public abstract int index(int r, int c);
+	
+	/**
+	 * Index of a cell.
+	 * @param cell The cell.
+	 * @return Index of the cell.
+	 */
+	public int index(Cell cell) {
+		return index(cell.r, cell.c);
+	} // end of index()
+	
+	/**
+	 * Row coordinate of a cell index.
+	 * @param id Cell index.
+	 * @return Row coordinate, as in Cell.r.
+	 */
+	public abstract int row(int id);
+	
+	/**
+	 * Column coordinate of a cell index.
+	 * @param id Cell index.
+	 * @return Column coordinate, as in Cell.c.
+	 */
+	public abstract int col(int id);
+	
+	/**
+	 * Neighbor of a cell along a direction, ignoring walls.
+	 * @param id Cell index.
+	 * @param dir Direction, one of EAST ... SOUTHEAST.
+	 * @return Index of the neighbor, -1 if there is no neighbor in the maze.
+	 */
+	public abstract int neighbour(int id, int dir);
+	
+	/**
+	 * Check whether the cell can move to its neighbor along a direction.
+	 * @param id Cell index.
+	 * @param dir Direction, one of EAST ... SOUTHEAST.
+	 * @return True if the neighbor is in the maze and there is no wall in between. Otherwise false.
+	 */
+	public abstract boolean isOpen(int id, int dir);
+	
+	/**
+	 * Knock down the wall between a cell and its neighbor along a direction.
+	 * @param id Cell index.
+	 * @param dir Direction, one of EAST ... SOUTHEAST. The neighbor must be in the maze.
+	 */
+	public abstract void carve(int id, int dir);
+	
+	/**
+	 * Other end of the tunnel at a cell.
+	 * @param id Cell index.
+	 * @return Index of the other end, -1 if the cell has no tunnel.
+	 */
+	public abstract int tunnel(int id);
+	
+	/**
+	 * Cells one move away from a cell: its open neighbors, in direction order, then the
+	 * other end of its tunnel. Searches walk the maze through this, so a maze can
+	 * override it with a faster lookup of its own storage.
+	 * @param id Cell index.
+	 * @param next Receives the indices, must have room for NUM_DIR + 1 of them.
+	 * @return Number of indices put into next.
+	 */
+	public int passages(int id, int next[]) {
+		int n = 0;
+		for (int i = 0; i < NUM_DIR; i++)
+			if (isOpen(id, i))
+				next[n++] = neighbour(id, i);
+		int tunnel = tunnel(id);
+		if (tunnel >= 0)
+			next[n++] = tunnel;
+		return n;
+	} // end of passages()
+	
+	/**
+	 * Open walls of a cell, same as isOpen() in every direction, for callers looking at every
+	 * wall of many cells (e.g. MazeRenderer). A maze can override it to look its cell up once.
+	 * @param id Cell index.
+	 * @return Bit (1 << dir) set for every direction dir the cell is open in.
+	 */
+	public int openDirs(int id) {
+		int dirs = 0;
+		for (int i = 0; i < NUM_DIR; i++)
+			if (isOpen(id, i))
+				dirs |= 1 << i;
+		return dirs;
+	} // end of openDirs()
+	
+	/**
+	 * Traversal to search this maze with, keeping its per-cell state where this maze
+	 * keeps its cells: on the heap, unless overridden (see MappedNormalMaze).
+	 * A traversal kept elsewhere is linked to the new one as counterparts, so either is
+	 * returned again for its kind of maze.
+	 * @param reuse Traversal used before, returned if it suits this maze. May be null.
+	 * @return The traversal.
+	 */
+	public MazeTraversal traversal(MazeTraversal reuse) {
+		if (reuse != null && reuse.getClass() == MazeTraversal.class)
+			return reuse;
+		if (reuse != null && reuse.counterpart != null && reuse.counterpart.getClass() == MazeTraversal.class)
+			return reuse.counterpart;
+		MazeTraversal traversal = new MazeTraversal();
+		if (reuse != null) {
+			reuse.counterpart = traversal;
+			traversal.counterpart = reuse;
+		}
+		return traversal;
+	} // end of traversal()
+	
+	/**
+	 * Draw a foot print at a cell's position, same as drawFtPrt(Cell).
+	 * @param id Cell index.
+	 */
+	public abstract void drawFtPrt(int id);
+	
+	/**
+	 * Check whether a foot print was drawn at a cell, i.e. the cell was recorded for validate().
+	 * @param id Cell index.
+	 * @return True if recorded. Otherwise false.
+	 */
+	public abstract boolean isRecorded(int id);
+
+	
+	/**
+	 * Paint a foot print on the render thread (see FootprintPainter), for drawFtPrt() of a
+	 * visualised maze. Only to be called from the solving thread.
+	 * @param id Cell index, recorded already.
+	 */
+	protected void paintFtPrt(int id) {
+		if (painter == null)
+			painter = new FootprintPainter(this, FootprintPainter.FRAMES_PER_SECOND);
+		painter.add(id);
+	} // end of paintFtPrt()
+	
+	/**
+	 * @param id Cell index.
+	 * @return X coordinate of the centre of a cell as drawn.
+	 */
+	protected double centreX(int id) {
+		return col(id) + 0.5;
+	} // end of centreX()
+	
+	/**
+	 * @param id Cell index.
+	 * @return Y coordinate of the centre of a cell as drawn.
+	 */
+	protected double centreY(int id) {
+		return row(id) + 0.5;
+	} // end of centreY()
+
+	/**
+	 * Publish an event of the solver to the event stream, if any. From the solving thread only.
+	 * @param type Event type, see SolverEvents.
+	 * @param id Cell index.
+	 */
+	public final void event(int type, int id) {
+		if (events != null)
+			events.publish(type, id);
+	} // end of event()
+	
+	/**
+	 * Publish an event of the solver to the event stream, if any, same as event(int, int).
+	 * @param type Event type, see SolverEvents.
+	 * @param cell A cell.
+	 */
+	public final void event(int type, Cell cell) {
+		if (events != null)
+			events.publish(type, index(cell));
+	} // end of event()
 
 }
@@ -0,0 +1,347 @@
+package maze;
+
+import static maze.Maze.HEX;
+import static maze.Maze.NORMAL;
+import static maze.Maze.TUNNEL;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary file of a generated maze, so it can be solved again without generating it.
+ *
+ * Layout, little-endian:
+ *   int  magic "MAZE", version
+ *   int  type (Maze.NORMAL, TUNNEL or HEX), number of rows, number of columns
+ *   int  entrance row and column, exit row and column, as given to Maze.initMaze(), -1 for none
+ *   int  number of tunnels
+ *   long seed of the generator
+ *   int  four per tunnel: row and column of both ends, as given to Maze.initMaze()
+ *   long number of wall bits, followed by the wall bits
+ *
+ * The wall bits hold the walls each cell owns, for every cell index (see Maze.index()):
+ * EAST and NORTH for square cells, EAST, NORTHEAST and NORTHWEST for hex cells, a set
+ * bit for a wall that is present (boundary walls, and indices that are not cells, are set).
+ * Bits are packed from the lowest bit of each byte, so for a normal maze they are exactly
+ * CompactNormalMaze.walls, and also what WallBitWriter writes: a header followed by the
+ * output of WallBitWriter is a maze file.
+ *
+ * Files are read and written through memory mapped FileChannels, a part of at most
+ * 1 GB at a time. A normal maze loads into a CompactNormalMaze by copying the wall bits,
+ * without looking at any cell.
+ *
+ * @author rommel gaddi
+ */
+public class MazeFile {
+
+	public final static int MAGIC = 0x455A414D;
+	public final static int VERSION = 1;
+
+	// size of the fixed part of the header, before the tunnels
+	private final static int FIXED = 48;
+	// largest part of the file mapped at once, a multiple of 8
+	private final static long CHUNK = 1L << 30;
+
+	private String fileName;
+	private long seed = 0;
+
+	// header of the file read last
+	private int type;
+	private int sizeR;
+	private int sizeC;
+	private int entR;
+	private int entC;
+	private int exitR;
+	private int exitC;
+	private List<int[]> tunnelList;
+	private long numBits;
+	// position of the wall bits
+	private long start;
+
+
+	/**
+	 * construct the file
+	 * @param fileName Name of the file to save to or load from.
+	 */
+	public MazeFile(String fileName) {
+		this.fileName = fileName;
+	} // end of MazeFile()
+
+
+	/**
+	 * Header of a maze file, up to and including the number of wall bits.
+	 * @param tunnelList Tunnels as given to Maze.initMaze().
+	 * @return Buffer holding the header, ready to be written.
+	 */
+	public static ByteBuffer header(int type, int sizeR, int sizeC, int entR, int entC, int exitR, int exitC,
+			List<int[]> tunnelList, long seed) {
+		ByteBuffer header = ByteBuffer.allocate(FIXED + 16 * tunnelList.size() + 8).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(type).putInt(sizeR).putInt(sizeC);
+		header.putInt(entR).putInt(entC).putInt(exitR).putInt(exitC);
+		header.putInt(tunnelList.size()).putLong(seed);
+		for (int tunnel[] : tunnelList)
+			header.putInt(tunnel[0]).putInt(tunnel[1]).putInt(tunnel[2]).putInt(tunnel[3]);
+		header.putLong(numWallBits(type, sizeR, sizeC));
+		header.flip();
+		return header;
+	} // end of header()
+
+
+	/**
+	 * Save a maze, overwriting the file.
+	 * @param maze The maze, initialised and generated.
+	 * @param seed Seed the maze was generated with.
+	 */
+	public void save(Maze maze, long seed) throws IOException {
+		// entrance and exit as given to initMaze(), hex columns are shifted in map[][],
+		// -1 for none, as initMaze() leaves them out then
+		int entR = -1, entC = -1, exitR = -1, exitC = -1;
+		if (maze.entrance != null) {
+			entR = maze.entrance.r;
+			entC = maze.entrance.c - (maze.type == HEX ? (entR + 1) / 2 : 0);
+		}
+		if (maze.exit != null) {
+			exitR = maze.exit.r;
+			exitC = maze.exit.c - (maze.type == HEX ? (exitR + 1) / 2 : 0);
+		}
+		List<int[]> tunnelList = new ArrayList<int[]>();
+		for (int id = 0; id < maze.indexSize(); id++) {
+			int other = maze.isCell(id) ? maze.tunnel(id) : -1;
+			if (other > id)
+				tunnelList.add(new int[] { maze.row(id), maze.col(id), maze.row(other), maze.col(other) });
+		}
+		ByteBuffer header = header(maze.type, maze.sizeR, maze.sizeC, entR, entC, exitR, exitC, tunnelList, seed);
+
+		int perCell = bitsPerCell(maze.type);
+		long numLongs = (numWallBits(maze.type, maze.sizeR, maze.sizeC) + 63) >>> 6;
+		long start = header.remaining();
+
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "rw"); FileChannel channel = file.getChannel()) {
+			file.setLength(start + 8 * numLongs);
+			channel.write(header, 0);
+
+			long bit = 0;
+			for (long done = 0; done < numLongs; done += CHUNK >>> 3) {
+				int n = (int) Math.min(CHUNK >>> 3, numLongs - done);
+				MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, start + 8 * done, 8L * n);
+				LongBuffer longs = buffer.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				if (maze instanceof CompactNormalMaze && ((CompactNormalMaze) maze).walls != null) {
+					longs.put(((CompactNormalMaze) maze).walls, (int) done, n);
+				} else if (maze instanceof CompactNormalMaze) {
+					for (int i = 0; i < n; i++)
+						longs.put(((CompactNormalMaze) maze).wallWord((int) done + i));
+				} else {
+					for (int i = 0; i < n; i++, bit += 64)
+						longs.put(wallWord(maze, perCell, bit));
+				}
+				buffer.force();
+			}
+		}
+	} // end of save()
+
+
+	/**
+	 * Load a maze: a CompactNormalMaze for a normal maze, otherwise a TunnelMaze or HexMaze.
+	 * @return The maze, as generated. isVisu is left at its default.
+	 * @throws IOException If the file cannot be read, or is not a maze file.
+	 */
+	public Maze load() throws IOException {
+		return load(true);
+	} // end of load()
+
+
+	/**
+	 * Load a maze, as load().
+	 * @param isCompact Whether to load a normal maze into a CompactNormalMaze, otherwise into a
+	 * NormalMaze, whose Cells the solvers walking Cells need.
+	 * @return The maze, as generated. isVisu is left at its default.
+	 * @throws IOException If the file cannot be read, or is not a maze file.
+	 */
+	public Maze load(boolean isCompact) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			readHeader(channel);
+
+			Maze maze;
+			if (type == NORMAL && tunnelList.isEmpty())
+				maze = isCompact ? new CompactNormalMaze() : new NormalMaze();
+			else if (type == HEX)
+				maze = new HexMaze();
+			else
+				maze = new TunnelMaze();
+
+			maze.initMaze(sizeR, sizeC, entR, entC, exitR, exitC, tunnelList);
+			if (maze instanceof CompactNormalMaze)
+				copyWalls(channel, start, numBits, ((CompactNormalMaze) maze).walls);
+			else
+				carveWalls(channel, start, numBits, maze);
+			return maze;
+		}
+	} // end of load()
+
+
+	/**
+	 * Map the file of a normal maze into a MappedNormalMaze, without loading it. The maze reads
+	 * its walls from this file, which is left unchanged, and keeps the cells recorded by
+	 * drawFtPrt() in a scratch file.
+	 * @return The maze, as generated. isVisu is left at its default.
+	 * @throws IOException If the file cannot be read, or is not a maze file of a normal maze.
+	 */
+	public MappedNormalMaze map() throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			readHeader(channel);
+		}
+		if (type != NORMAL || !tunnelList.isEmpty())
+			throw new IOException(fileName + " is not a normal maze.");
+
+		MappedNormalMaze maze = new MappedNormalMaze(fileName);
+		maze.open(sizeR, sizeC, entR, entC, exitR, exitC, start, numBits);
+		return maze;
+	} // end of map()
+
+
+	/**
+	 * Read and check the header.
+	 * @throws IOException If the file is not a maze file.
+	 */
+	private void readHeader(FileChannel channel) throws IOException {
+		if (channel.size() < FIXED)
+			throw new IOException(fileName + " is not a maze file.");
+		ByteBuffer fixed = channel.map(MapMode.READ_ONLY, 0, FIXED).order(ByteOrder.LITTLE_ENDIAN);
+		if (fixed.getInt() != MAGIC || fixed.getInt() != VERSION)
+			throw new IOException(fileName + " is not a maze file.");
+		type = fixed.getInt();
+		sizeR = fixed.getInt();
+		sizeC = fixed.getInt();
+		entR = fixed.getInt();
+		entC = fixed.getInt();
+		exitR = fixed.getInt();
+		exitC = fixed.getInt();
+		int numTunnels = fixed.getInt();
+		seed = fixed.getLong();
+
+		start = FIXED + 16L * numTunnels + 8;
+		if (numTunnels < 0 || channel.size() < start)
+			throw new IOException(fileName + " is truncated.");
+		ByteBuffer rest = channel.map(MapMode.READ_ONLY, FIXED, start - FIXED).order(ByteOrder.LITTLE_ENDIAN);
+		tunnelList = new ArrayList<int[]>();
+		for (int i = 0; i < numTunnels; i++)
+			tunnelList.add(new int[] { rest.getInt(), rest.getInt(), rest.getInt(), rest.getInt() });
+		numBits = rest.getLong();
+
+		if (type != NORMAL && type != TUNNEL && type != HEX)
+			throw new IOException(fileName + " has an unknown maze type " + type + ".");
+		if (sizeR < 1 || sizeC < 1 || numBits != numWallBits(type, sizeR, sizeC))
+			throw new IOException(fileName + " has the wrong number of wall bits.");
+		// the last byte may be the last one written by WallBitWriter
+		if (channel.size() < start + ((numBits + 7) >>> 3))
+			throw new IOException(fileName + " is truncated.");
+	} // end of readHeader()
+
+
+	/**
+	 * @return Seed of the maze loaded last.
+	 */
+	public long seed() {
+		return seed;
+	} // end of seed()
+
+
+	/**
+	 * Copy the wall bits into a wall bitset, longs at a time.
+	 */
+	private static void copyWalls(FileChannel channel, long start, long numBits, long walls[]) throws IOException {
+		long numBytes = (numBits + 7) >>> 3;
+		int numLongs = (int) (numBytes >>> 3);
+		for (long done = 0; done < numLongs; done += CHUNK >>> 3) {
+			int n = (int) Math.min(CHUNK >>> 3, numLongs - done);
+			channel.map(MapMode.READ_ONLY, start + 8 * done, 8L * n).order(ByteOrder.LITTLE_ENDIAN)
+				.asLongBuffer().get(walls, (int) done, n);
+		}
+
+		// bytes of a last partial long, and bits past the last wall, are walls present
+		int tail = (int) (numBytes & 7);
+		if (tail > 0) {
+			ByteBuffer last = channel.map(MapMode.READ_ONLY, start + 8L * numLongs, tail);
+			long word = -1L;
+			for (int i = 0; i < tail; i++)
+				word = word & ~(0xFFL << (8 * i)) | (last.get(i) & 0xFFL) << (8 * i);
+			walls[numLongs] = word;
+		}
+		if ((numBits & 63) != 0)
+			walls[(int) (numBits >>> 6)] |= -1L << numBits;
+	} // end of copyWalls()
+
+
+	/**
+	 * Knock down the walls of a maze whose bits are clear.
+	 */
+	private static void carveWalls(FileChannel channel, long start, long numBits, Maze maze) throws IOException {
+		int perCell = bitsPerCell(maze.type);
+		long numBytes = (numBits + 7) >>> 3;
+		int id = 0;
+		int j = 0;
+		for (long done = 0; done < numBytes; done += CHUNK) {
+			int n = (int) Math.min(CHUNK, numBytes - done);
+			MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, start + done, n);
+			for (int i = 0; i < n; i++) {
+				int b = bytes.get(i);
+				for (int k = 0; k < 8 && id < maze.indexSize(); k++) {
+					int dir = perCell == 2 ? 2 * j : j;
+					if ((b & (1 << k)) == 0 && maze.isCell(id) && maze.neighbour(id, dir) >= 0)
+						maze.carve(id, dir);
+					if (++j == perCell) {
+						j = 0;
+						id++;
+					}
+				}
+			}
+		}
+	} // end of carveWalls()
+
+
+	/**
+	 * 64 wall bits of a maze, from a bit position.
+	 */
+	private static long wallWord(Maze maze, int perCell, long bit) {
+		int id = (int) (bit / perCell);
+		int j = (int) (bit % perCell);
+		long word = 0;
+		for (int k = 0; k < 64; k++) {
+			if (id >= maze.indexSize() || !maze.isCell(id) || !maze.isOpen(id, perCell == 2 ? 2 * j : j))
+				word |= 1L << k;
+			if (++j == perCell) {
+				j = 0;
+				id++;
+			}
+		}
+		return word;
+	} // end of wallWord()
+
+
+	/**
+	 * Number of walls each cell owns: EAST and NORTH, or EAST, NORTHEAST and NORTHWEST for hex.
+	 */
+	private static int bitsPerCell(int type) {
+		return type == HEX ? 3 : 2;
+	} // end of bitsPerCell()
+
+
+	/**
+	 * Number of wall bits of a maze, for every index of Maze.indexSize().
+	 */
+	private static long numWallBits(int type, int sizeR, int sizeC) {
+		long indexSize = (long) sizeR * (type == HEX ? sizeC + (sizeR + 1) / 2 : sizeC);
+		return bitsPerCell(type) * indexSize;
+	} // end of numWallBits()
+
+} // end of class MazeFile
@@ -0,0 +1,678 @@
+package maze;
+
+import static maze.Maze.*;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Draws a maze into an image in memory, without a window, and writes it to PNG files.
+ *
+ * The picture is the one of Maze.draw(): walls in black, the entrance and exit as blue
+ * and red dots with an opening in the outer wall, tunnels as coloured squares, and the
+ * cells recorded by drawFtPrt() as grey dots, one cell around the maze as margin.
+ * Every cell is cellSize x cellSize pixels.
+ *
+ * Walls are rasterised straight into the pixel array of an indexed BufferedImage (one
+ * byte per pixel, in the colours below), through the index functions of Maze, so every
+ * maze type is drawn alike. The image is split into bands of rows drawn on parallel
+ * threads; every band only writes its own rows. PNG files are encoded here too, in
+ * bands of rows compressed on parallel threads. Large mazes can be written as tiles,
+ * drawn one after another, so only one tile is in memory at a time.
+ *
+ * @author rommel gaddi
+ */
+public class MazeRenderer {
+
+	// colours of the image, indices of the palette
+	private final static byte WHITE = 0;
+	private final static byte BLACK = 1;
+	private final static byte BLUE = 2;
+	private final static byte RED = 3;
+	private final static byte GRAY = 4;
+	private final static byte TUNNEL_COLORS = 5;
+
+	// same colours as Maze.draw(), not taken from StdDraw as loading it opens its window
+	private final static Color palette[] = { Color.WHITE, Color.BLACK, Color.BLUE, Color.RED, Color.GRAY,
+			Color.CYAN, Color.GREEN, Color.MAGENTA, Color.ORANGE, Color.PINK, Color.YELLOW,
+			new Color(9, 90, 166), new Color(103, 198, 243), new Color(150, 35, 31) };
+	private final static IndexColorModel colorModel = colorModel();
+
+	// half the length of a hex wall, as in HexMaze.draw()
+	private final static double HALF_EDGE = 1.0 / 3;
+
+	private int cellSize;
+	private int lineWidth;
+	private int parallelism;
+	private ForkJoinPool pool = null;
+
+	// state of the maze being drawn
+	private Maze maze;
+	private boolean isHex;
+	private int entrance;
+	private int exit;
+	// smaller cell of every tunnel in index order, the position gives the colour
+	private int tunnels[];
+
+
+	/**
+	 * construct the renderer, drawing on every available processor
+	 * @param cellSize Pixels of the side of a cell, at least 2.
+	 */
+	public MazeRenderer(int cellSize) {
+		this(cellSize, Runtime.getRuntime().availableProcessors());
+	} // end of MazeRenderer()
+
+
+	/**
+	 * construct the renderer
+	 * @param cellSize Pixels of the side of a cell, at least 2.
+	 * @param parallelism Number of threads, 1 to draw on the calling thread only.
+	 * @throws IllegalArgumentException If the cell size is less than 2.
+	 */
+	public MazeRenderer(int cellSize, int parallelism) {
+		if (cellSize < 2)
+			throw new IllegalArgumentException("Cell size must be at least 2.");
+		this.cellSize = cellSize;
+		this.lineWidth = 1 + cellSize / 16;
+		this.parallelism = Math.max(parallelism, 1);
+	} // end of MazeRenderer()
+
+
+	/**
+	 * @return Width of the image of a maze in pixels.
+	 */
+	public long width(Maze maze) {
+		return (long) Math.ceil((maze.sizeC + (maze.type == HEX ? 2.5 : 2)) * cellSize) + 1;
+	} // end of width()
+
+
+	/**
+	 * @return Height of the image of a maze in pixels.
+	 */
+	public long height(Maze maze) {
+		return (long) (maze.sizeR + 2) * cellSize + 1;
+	} // end of height()
+
+
+	/**
+	 * Draw the whole maze.
+	 * @throws IllegalArgumentException If the image would have more than 2^31 - 1 pixels, see writeTiles().
+	 */
+	public BufferedImage render(Maze maze) {
+		long width = width(maze);
+		long height = height(maze);
+		if (width * height > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Image too large, write it as tiles.");
+		return render(maze, 0, 0, (int) width, (int) height);
+	} // end of render()
+
+
+	/**
+	 * Draw a rectangle of the image of a maze.
+	 * @param x Left column of the rectangle in the whole image, in pixels.
+	 * @param y Top row of the rectangle in the whole image, in pixels.
+	 * @param width Width of the rectangle.
+	 * @param height Height of the rectangle.
+	 * @return Image of the rectangle.
+	 */
+	public synchronized BufferedImage render(Maze maze, int x, int y, int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+		final byte pixels[] = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		start(maze);
+
+		if (parallelism == 1 || height < 2 * parallelism) {
+			new Band(pixels, x, y, width, y, y + height).draw();
+		} else {
+			final int step = (height + parallelism - 1) / parallelism;
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int from = y; from < y + height; from += step) {
+				final Band band = new Band(pixels, x, y, width, from, Math.min(from + step, y + height));
+				tasks.add(pool().submit(() -> band.draw()));
+			}
+			for (ForkJoinTask<?> task : tasks)
+				task.join();
+		}
+
+		this.maze = null;
+		return image;
+	} // end of render()
+
+
+	/**
+	 * Draw the whole maze into a PNG file.
+	 * @throws IllegalArgumentException If the image is too large, see render().
+	 */
+	public void writePng(Maze maze, File file) throws IOException {
+		writePng(render(maze), file);
+	} // end of writePng()
+
+
+	/**
+	 * Draw the maze into PNG files of tileSize x tileSize pixels (less on the right and
+	 * bottom edges), named prefix_row_column.png with the row and column of the tile
+	 * counted from the top left.
+	 * @param prefix Path and name of the files before the tile position.
+	 * @return Number of files written.
+	 * @throws IllegalArgumentException If the tile size is not positive.
+	 */
+	public int writeTiles(Maze maze, String prefix, int tileSize) throws IOException {
+		if (tileSize <= 0)
+			throw new IllegalArgumentException("Tile size must be positive.");
+		long width = width(maze);
+		long height = height(maze);
+		int numTiles = 0;
+		for (long y = 0; y < height; y += tileSize) {
+			for (long x = 0; x < width; x += tileSize) {
+				BufferedImage tile = render(maze, (int) x, (int) y,
+						(int) Math.min(tileSize, width - x), (int) Math.min(tileSize, height - y));
+				writePng(tile, new File(prefix + "_" + y / tileSize + "_" + x / tileSize + ".png"));
+				numTiles++;
+			}
+		}
+		return numTiles;
+	} // end of writeTiles()
+
+
+	/**
+	 * Write an image drawn by render() to a PNG file, with 4 bits per pixel indexing the
+	 * palette, rows not filtered and compressed for speed: the image is mostly runs of
+	 * white and black, which compress well without filters.
+	 *
+	 * Compressing takes longer than drawing, so it is split into bands of rows as well.
+	 * Every band is compressed on its own and ends on a byte boundary (a sync flush), so
+	 * the bands join into one zlib stream, and the checksums of the bands are combined.
+	 */
+	public void writePng(BufferedImage image, File file) throws IOException {
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final byte pixels[] = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' });
+
+			Chunk header = new Chunk("IHDR", out);
+			DataOutputStream data = new DataOutputStream(header);
+			data.writeInt(width);
+			data.writeInt(height);
+			// bit depth 4, indexed colour, deflate, no filters, no interlace
+			data.write(new byte[] { 4, 3, 0, 0, 0 });
+			header.close();
+
+			Chunk colors = new Chunk("PLTE", out);
+			for (Color color : palette)
+				colors.write(new byte[] { (byte) color.getRed(), (byte) color.getGreen(), (byte) color.getBlue() });
+			colors.close();
+
+			Chunk idat = new Chunk("IDAT", out);
+			// zlib header: deflate with a 32 KB window, fastest compression
+			idat.write(new byte[] { 0x78, 0x01 });
+			long adler = 1;
+
+			// about 4 MB of rows a band, compressed parallelism bands at a time
+			final int step = Math.max(1, (1 << 22) / (1 + (width + 1) / 2));
+			List<PngBand> bands = new ArrayList<>();
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int from = 0; from < height; from += step) {
+				final PngBand band = new PngBand(from, Math.min(from + step, height));
+				bands.add(band);
+				if (parallelism == 1)
+					band.deflate(pixels, width, height);
+				else
+					tasks.add(pool().submit(() -> band.deflate(pixels, width, height)));
+
+				if (bands.size() == parallelism || band.to == height) {
+					for (ForkJoinTask<?> task : tasks)
+						task.join();
+					for (PngBand done : bands) {
+						done.data.writeTo(idat);
+						adler = combine(adler, done.adler, done.length);
+					}
+					bands.clear();
+					tasks.clear();
+				}
+			}
+
+			new DataOutputStream(idat).writeInt((int) adler);
+			idat.close();
+			new Chunk("IEND", out).close();
+		}
+	} // end of writePng()
+
+
+	/**
+	 * Pool of the renderer, made on first use and kept for every later image and tile.
+	 * Its workers are daemon threads, so it is not shut down.
+	 */
+	private synchronized ForkJoinPool pool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
+		return pool;
+	} // end of pool()
+
+
+	/**
+	 * Rows [from, to) of an image, compressed by one thread.
+	 */
+	private static class PngBand {
+		int from;
+		int to;
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		long adler;
+		long length;
+
+		PngBand(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Compress the rows, with the filter type (0) before every row and two pixels a byte.
+		 * The last band ends the stream, others end on a sync flush.
+		 */
+		void deflate(byte pixels[], int width, int height) {
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+			Adler32 checksum = new Adler32();
+			byte row[] = new byte[1 + (width + 1) / 2];
+			byte buffer[] = new byte[1 << 16];
+			try {
+				for (int y = from; y < to; y++) {
+					int at = y * width;
+					for (int x = 0; x + 1 < width; x += 2)
+						row[1 + x / 2] = (byte) (pixels[at + x] << 4 | pixels[at + x + 1]);
+					if (width % 2 != 0)
+						row[row.length - 1] = (byte) (pixels[at + width - 1] << 4);
+					checksum.update(row);
+					deflater.setInput(row);
+					while (!deflater.needsInput())
+						data.write(buffer, 0, deflater.deflate(buffer));
+				}
+				if (to == height) {
+					deflater.finish();
+					while (!deflater.finished())
+						data.write(buffer, 0, deflater.deflate(buffer));
+				} else {
+					int n;
+					do {
+						n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+						data.write(buffer, 0, n);
+					} while (n == buffer.length);
+				}
+			} finally {
+				deflater.end();
+			}
+			adler = checksum.getValue();
+			length = (long) row.length * (to - from);
+		}
+	} // end of class PngBand
+
+
+	/**
+	 * Adler-32 checksum of two runs of bytes one after the other, from their checksums
+	 * (adler32_combine() of zlib).
+	 * @param length2 Number of bytes of the second run.
+	 */
+	private static long combine(long adler1, long adler2, long length2) {
+		final long BASE = 65521;
+		long rem = length2 % BASE;
+		long sum1 = adler1 & 0xffff;
+		long sum2 = rem * sum1 % BASE;
+		sum1 += (adler2 & 0xffff) + BASE - 1;
+		sum2 += (adler1 >>> 16 & 0xffff) + (adler2 >>> 16 & 0xffff) + BASE - rem;
+		if (sum1 >= BASE)
+			sum1 -= BASE;
+		if (sum1 >= BASE)
+			sum1 -= BASE;
+		if (sum2 >= BASE << 1)
+			sum2 -= BASE << 1;
+		if (sum2 >= BASE)
+			sum2 -= BASE;
+		return sum1 | sum2 << 16;
+	} // end of combine()
+
+
+	/**
+	 * PNG chunk: its bytes are buffered and written with their length, type and CRC when closed.
+	 * Closing does not close the file. Large data (IDAT) is split into chunks of 1 MB.
+	 */
+	private static class Chunk extends OutputStream {
+		final static int MAX_LENGTH = 1 << 20;
+		byte type[];
+		DataOutputStream out;
+		byte buffer[] = new byte[64];
+		int length = 0;
+
+		Chunk(String type, DataOutputStream out) {
+			this.type = type.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte b[], int off, int len) throws IOException {
+			while (len > 0) {
+				if (length == MAX_LENGTH)
+					flushChunk();
+				if (length == buffer.length)
+					buffer = Arrays.copyOf(buffer, Math.min(2 * buffer.length, MAX_LENGTH));
+				int n = Math.min(len, buffer.length - length);
+				System.arraycopy(b, off, buffer, length, n);
+				length += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		void flushChunk() throws IOException {
+			CRC32 crc = new CRC32();
+			crc.update(type);
+			crc.update(buffer, 0, length);
+			out.writeInt(length);
+			out.write(type);
+			out.write(buffer, 0, length);
+			out.writeInt((int) crc.getValue());
+			length = 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			flushChunk();
+		}
+	} // end of class Chunk
+
+
+	/**
+	 * Find what the bands need to know of the maze before drawing it.
+	 */
+	private void start(Maze maze) {
+		this.maze = maze;
+		isHex = maze.type == HEX;
+		entrance = maze.entrance == null ? -1 : maze.index(maze.entrance);
+		exit = maze.exit == null ? -1 : maze.index(maze.exit);
+
+		// colours of tunnels go by the order Maze.draw() draws them in
+		IntStack found = new IntStack();
+		if (maze.sizeTunnel > 0) {
+			for (int id = 0; id < maze.indexSize(); id++) {
+				int other = maze.isCell(id) ? maze.tunnel(id) : -1;
+				if (other > id)
+					found.push(id);
+			}
+		}
+		tunnels = new int[found.size()];
+		for (int i = tunnels.length - 1; i >= 0; i--)
+			tunnels[i] = found.pop();
+	} // end of start()
+
+
+	/**
+	 * Direction of the outer wall opened for an entrance or exit cell, as in Maze.draw().
+	 */
+	private int openingDir(int id) {
+		for (int k = 0; k < NUM_DIR; k++) {
+			if (!isHex && (k == NORTHEAST || k == SOUTHWEST))
+				continue;
+			if (maze.neighbour(id, k) < 0)
+				return k;
+		}
+		return -1;
+	} // end of openingDir()
+
+
+	/**
+	 * @return Palette of the colours above.
+	 */
+	private static IndexColorModel colorModel() {
+		byte r[] = new byte[palette.length];
+		byte g[] = new byte[palette.length];
+		byte b[] = new byte[palette.length];
+		for (int i = 0; i < palette.length; i++) {
+			r[i] = (byte) palette[i].getRed();
+			g[i] = (byte) palette[i].getGreen();
+			b[i] = (byte) palette[i].getBlue();
+		}
+		return new IndexColorModel(8, palette.length, r, g, b);
+	} // end of colorModel()
+
+
+	/**
+	 * Rows [from, to) of the whole image, drawn by one thread into the pixels of a rectangle
+	 * of the image. Maze coordinates are those of StdDraw in Maze.draw(): x to the right,
+	 * y upwards, a cell one unit wide.
+	 */
+	private class Band {
+		byte pixels[];
+		int left;
+		int top;
+		int width;
+		int from;
+		int to;
+
+		Band(byte pixels[], int left, int top, int width, int from, int to) {
+			this.pixels = pixels;
+			this.left = left;
+			this.top = top;
+			this.width = width;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Draw every cell with pixels in the band: walls first, then the dots and tunnels,
+		 * which do not overlap the walls.
+		 */
+		void draw() {
+			// cells within one row or column of the band, hex walls stick out of their row
+			int rLo = Math.max(0, (int) Math.floor(maze.sizeR + 1 - (double) to / cellSize) - 1);
+			int rHi = Math.min(maze.sizeR - 1, (int) Math.ceil(maze.sizeR + 1 - (double) from / cellSize) + 1);
+			int cLo = Math.max(0, (int) Math.floor((double) left / cellSize) - 3);
+			int cHi = Math.min(maze.sizeC - 1, (int) Math.ceil((double) (left + width) / cellSize) + 1);
+
+			for (int r = rLo; r <= rHi; r++) {
+				for (int c = cLo; c <= cHi; c++) {
+					int id = maze.index(r, isHex ? c + (r + 1) / 2 : c);
+					int opening = id == entrance || id == exit ? openingDir(id) : -1;
+					if (isHex)
+						hexWalls(id, r, x(r, c), opening);
+					else
+						walls(id, r, c, opening);
+				}
+			}
+
+			for (int r = rLo; r <= rHi; r++) {
+				for (int c = cLo; c <= cHi; c++) {
+					int id = maze.index(r, isHex ? c + (r + 1) / 2 : c);
+					if (tunnels.length > 0 && maze.tunnel(id) >= 0)
+						tunnel(id, r, c);
+					if (id == entrance)
+						dot(x(r, c) + 0.5, r + 0.5, 0.375, BLUE);
+					if (id == exit)
+						dot(x(r, c) + 0.5, r + 0.5, 0.375, RED);
+					if (maze.isRecorded(id))
+						dot(x(r, c) + 0.5, r + 0.5, 0.25, GRAY);
+				}
+			}
+		} // end of draw()
+
+		/**
+		 * x of the left side of a cell.
+		 */
+		double x(int r, int c) {
+			return isHex ? r % 2 * 0.5 + c : c;
+		}
+
+		/**
+		 * Walls of a cell of a normal maze: its EAST and NORTH walls, and its WEST and
+		 * SOUTH walls on the edge of the maze, so every wall is drawn once.
+		 */
+		void walls(int id, int r, int c, int opening) {
+			// top left corner of the cell in the whole image
+			int x = (c + 1) * cellSize;
+			int y = (maze.sizeR - r) * cellSize;
+			int end = cellSize + lineWidth;
+			int closed = closed(id, opening);
+
+			if (x < left || x + end > left + width || y < from || y + end > to) {
+				// cell cut by the band or the rectangle
+				if ((closed & 1 << EAST) != 0)
+					fill(x + cellSize, y, x + end, y + end, BLACK);
+				if ((closed & 1 << NORTH) != 0)
+					fill(x, y, x + end, y + lineWidth, BLACK);
+			} else {
+				// walls are random, so rather than branch on them their pixels are or-ed
+				// with BLACK (1) or WHITE (0), on pixels nothing but walls is drawn on yet
+				byte east = (byte) (closed >> EAST & 1);
+				byte north = (byte) (closed >> NORTH & 1);
+				int at = (y - top) * width + x - left;
+				for (int i = 0; i < lineWidth; i++)
+					for (int j = 0; j < end; j++)
+						pixels[at + i * width + j] |= north;
+				at += cellSize;
+				for (int i = 0; i < end; i++)
+					for (int j = 0; j < lineWidth; j++)
+						pixels[at + i * width + j] |= east;
+			}
+
+			if (c == 0 && (closed & 1 << WEST) != 0)
+				fill(x, y, x + lineWidth, y + end, BLACK);
+			if (r == 0 && (closed & 1 << SOUTH) != 0)
+				fill(x, y + cellSize, x + end, y + end, BLACK);
+		} // end of walls()
+
+		/**
+		 * Walls of a cell of a hex maze, as in HexMaze.draw(): its EAST, NORTHEAST and
+		 * NORTHWEST walls, and its other walls on the edge of the maze.
+		 * @param x x of the left side of the cell.
+		 */
+		void hexWalls(int id, int r, double x, int opening) {
+			double y = r + 0.5;
+			double h = HALF_EDGE;
+			int closed = closed(id, opening);
+			if ((closed & 1 << EAST) != 0)
+				line(x + 1, y - h, x + 1, y + h, BLACK);
+			if ((closed & 1 << NORTHEAST) != 0)
+				line(x + 0.5, y + 2 * h, x + 1, y + h, BLACK);
+			if ((closed & 1 << NORTHWEST) != 0)
+				line(x + 0.5, y + 2 * h, x, y + h, BLACK);
+			if (isEdge(id, WEST, closed))
+				line(x, y - h, x, y + h, BLACK);
+			if (isEdge(id, SOUTHWEST, closed))
+				line(x, y - h, x + 0.5, y - 2 * h, BLACK);
+			if (isEdge(id, SOUTHEAST, closed))
+				line(x + 1, y - h, x + 0.5, y - 2 * h, BLACK);
+		} // end of hexWalls()
+
+		/**
+		 * @return Walls of a cell to draw: every wall not open, but the opening of the entrance or exit.
+		 */
+		int closed(int id, int opening) {
+			int closed = ~maze.openDirs(id);
+			return opening < 0 ? closed : closed & ~(1 << opening);
+		} // end of closed()
+
+		/**
+		 * @return True if a wall to draw is on the edge of the maze.
+		 */
+		boolean isEdge(int id, int dir, int closed) {
+			return (closed & 1 << dir) != 0 && maze.neighbour(id, dir) < 0;
+		} // end of isEdge()
+
+		/**
+		 * Square of a tunnel end, as in TunnelMaze.draw().
+		 */
+		void tunnel(int id, int r, int c) {
+			int i = Arrays.binarySearch(tunnels, Math.min(id, maze.tunnel(id)));
+			byte color = (byte) (TUNNEL_COLORS + i % (palette.length - TUNNEL_COLORS));
+			line(c + 0.9, r + 0.1, c + 0.9, r + 0.9, color);
+			line(c + 0.1, r + 0.9, c + 0.9, r + 0.9, color);
+			line(c + 0.1, r + 0.1, c + 0.1, r + 0.9, color);
+			line(c + 0.1, r + 0.1, c + 0.9, r + 0.1, color);
+		} // end of tunnel()
+
+		/**
+		 * @return Column of x in the whole image.
+		 */
+		int px(double x) {
+			return (int) Math.round((x + 1) * cellSize);
+		}
+
+		/**
+		 * @return Row of y in the whole image.
+		 */
+		int py(double y) {
+			return (int) Math.round((maze.sizeR + 1 - y) * cellSize);
+		}
+
+		/**
+		 * Draw a line lineWidth pixels wide, stepping along its longer axis.
+		 */
+		void line(double x0, double y0, double x1, double y1, byte color) {
+			int ax = px(x0);
+			int ay = py(y0);
+			int bx = px(x1);
+			int by = py(y1);
+			if (ax == bx || ay == by) {
+				fill(Math.min(ax, bx), Math.min(ay, by), Math.max(ax, bx) + lineWidth, Math.max(ay, by) + lineWidth, color);
+				return;
+			}
+			int n = Math.max(Math.abs(bx - ax), Math.abs(by - ay));
+			for (int i = 0; i <= n; i++) {
+				int x = n == 0 ? ax : ax + (int) Math.round((double) (bx - ax) * i / n);
+				int y = n == 0 ? ay : ay + (int) Math.round((double) (by - ay) * i / n);
+				fill(x, y, x + lineWidth, y + lineWidth, color);
+			}
+		} // end of line()
+
+		/**
+		 * Draw a filled circle.
+		 */
+		void dot(double x, double y, double radius, byte color) {
+			double cx = (x + 1) * cellSize;
+			double cy = (maze.sizeR + 1 - y) * cellSize;
+			double rr = radius * cellSize;
+			int y0 = Math.max(from, (int) Math.ceil(cy - rr));
+			int y1 = Math.min(to - 1, (int) Math.floor(cy + rr));
+			for (int py = y0; py <= y1; py++) {
+				double dx = Math.sqrt(rr * rr - (py - cy) * (py - cy));
+				fill((int) Math.ceil(cx - dx), py, (int) Math.floor(cx + dx) + 1, py + 1, color);
+			}
+		} // end of dot()
+
+		/**
+		 * Fill the pixels [x0, x1) x [y0, y1) of the whole image that are in the band and the rectangle.
+		 */
+		void fill(int x0, int y0, int x1, int y1, byte color) {
+			x0 = Math.max(x0, left);
+			x1 = Math.min(x1, left + width);
+			y0 = Math.max(y0, from);
+			y1 = Math.min(y1, to);
+			for (int y = y0; y < y1; y++) {
+				int row = (y - top) * width - left;
+				for (int x = x0; x < x1; x++)
+					pixels[row + x] = color;
+			}
+		} // end of fill()
+	} // end of class Band
+
+} // end of class MazeRenderer
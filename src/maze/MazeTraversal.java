@@ -0,0 +1,276 @@
+package maze;
+
+import static maze.Maze.NUM_DIR;
+
+import java.util.Arrays;
+
+/**
+ * Breadth first traversal of a maze by cell index, shared by isPerfect(),
+ * validate() and the solvers.
+ *
+ * The queue is an int ring buffer, and the distance of every cell is kept in a
+ * flat int array. Cells are marked reached by stamping a flat int array with the
+ * number of the current search, so starting a new search clears nothing. Cells
+ * one move away come from Maze.passages(), so tunnels are walked like open walls.
+ *
+ * The arrays are kept between searches and only grow for a larger maze, so a
+ * traversal used again (e.g. forThread()) allocates nothing once warmed up.
+ * Subclasses may keep the marks and distances elsewhere (see MappedTraversal).
+ *
+ */
+public class MazeTraversal {
+
+	/**
+	 * Decides which cells a search may step into.
+	 */
+	public interface CellFilter {
+		/**
+		 * @param id Index of a cell not yet reached.
+		 * @return True if the search may step into the cell. Otherwise false.
+		 */
+		public boolean accept(int id);
+	}
+
+	private final static ThreadLocal<MazeTraversal> traversals = ThreadLocal.withInitial(MazeTraversal::new);
+
+	// stamp of cells reached by the current search, + 1 once visited
+	private int reached = 0;
+	private int mark[] = new int[0];
+	private int distance[] = new int[0];
+	private IntQueue queue = new IntQueue();
+	private int next[] = new int[NUM_DIR + 1];
+	private int numVisited = 0;
+	private long numPassages = 0;
+	// traversal keeping its state elsewhere (on the heap, or in a file), used by the same
+	// caller for the other kind of maze, see Maze.traversal()
+	MazeTraversal counterpart = null;
+
+
+	/**
+	 * Traversal of the calling thread, kept for reuse.
+	 * Must not be used by two searches at the same time.
+	 */
+	public static MazeTraversal forThread() {
+		return traversals.get();
+	} // end of forThread()
+
+
+	/**
+	 * Start a new search, with no cell reached.
+	 * @param maze The maze to search.
+	 */
+	public void start(Maze maze) {
+		ensureCapacity(maze.indexSize());
+		if (reached >= Integer.MAX_VALUE - 2) {
+			clearMarks();
+			reached = 0;
+		}
+		reached += 2;
+		queue.clear();
+		numVisited = 0;
+		numPassages = 0;
+	} // end of start()
+
+
+	/**
+	 * Mark a cell reached, without putting it into the queue.
+	 * A cell already reached keeps its mark, and takes the new distance.
+	 * @param id Cell index.
+	 * @param dist Distance of the cell.
+	 */
+	public void reach(int id, int dist) {
+		if (mark(id) < reached)
+			setMark(id, reached);
+		setDistance(id, dist);
+	} // end of reach()
+
+
+	/**
+	 * Mark a cell reached and put it at the tail of the queue.
+	 * @param id Cell index.
+	 * @param dist Distance of the cell.
+	 */
+	public void add(int id, int dist) {
+		setMark(id, reached);
+		setDistance(id, dist);
+		queue.add(id);
+	} // end of add()
+
+
+	/**
+	 * Take the cell at the head of the queue, and mark it visited.
+	 * @return Index of the cell. The queue must not be empty.
+	 */
+	public int poll() {
+		int id = queue.poll();
+		visit(id);
+		return id;
+	} // end of poll()
+
+
+	/**
+	 * Mark a reached cell visited, for searches taking cells in another order than the queue.
+	 * @param id Cell index.
+	 */
+	public void visit(int id) {
+		setMark(id, reached + 1);
+		numVisited++;
+	} // end of visit()
+
+
+	/**
+	 * Put every cell one move away from a cell that is not yet reached, and is accepted
+	 * by the filter, into the queue at one more than the distance of the cell.
+	 * @param filter Cells the search may step into, null for every cell.
+	 * @return Number of cells one move away, reached or not.
+	 */
+	public int expand(Maze maze, int id, CellFilter filter) {
+		int n = maze.passages(id, next);
+		int dist = distance(id) + 1;
+		for (int i = 0; i < n; i++) {
+			int cell = next[i];
+			if (mark(cell) < reached && (filter == null || filter.accept(cell)))
+				add(cell, dist);
+		}
+		numPassages += n;
+		return n;
+	} // end of expand()
+
+
+	/**
+	 * Visit cells in order of their distance until the queue is empty or the goal is visited.
+	 * @param filter Cells the search may step into, null for every cell.
+	 * @param goal Index of the cell to stop at, -1 to visit every cell that can be reached.
+	 * @return True if the goal was visited. Otherwise false.
+	 */
+	public boolean search(Maze maze, CellFilter filter, int goal) {
+		while (!queue.isEmpty()) {
+			int id = poll();
+			if (id == goal)
+				return true;
+			expand(maze, id, filter);
+		}
+		return false;
+	} // end of search()
+
+
+	/**
+	 * Shortest path to a reached cell, walking back through cells one less in distance, into
+	 * a stack kept for reuse.
+	 * @param id Index of a reached cell.
+	 * @param path Receives the indices of the cells on the path, from a cell of distance 0
+	 * at the bottom to the cell on top. Cleared first.
+	 * @throws IllegalStateException If a cell on the way has no reached cell one less in distance.
+	 */
+	public void pathTo(Maze maze, int id, IntStack path) {
+		path.clear();
+		path.push(id);
+		for (int i = distance(id); i > 0; i--) {
+			id = before(maze, id, i - 1);
+			path.push(id);
+		}
+		path.reverse();
+	} // end of pathTo()
+
+
+	/**
+	 * Reached cell one move away from a cell, at a distance one less.
+	 * @param dist Distance of the cell before.
+	 * @throws IllegalStateException If there is none, i.e. the distances are not those of a
+	 * finished search (e.g. lowered after the cells next to them were reached).
+	 */
+	private int before(Maze maze, int id, int dist) {
+		int n = maze.passages(id, next);
+		for (int j = 0; j < n; j++)
+			if (isReached(next[j]) && distance(next[j]) == dist)
+				return next[j];
+		throw new IllegalStateException("No reached cell at distance " + dist + " next to cell " + id + ".");
+	} // end of before()
+
+
+	/**
+	 * @return True if the cell was reached by the current search. Otherwise false.
+	 */
+	public boolean isReached(int id) {
+		return mark(id) >= reached;
+	} // end of isReached()
+
+
+	/**
+	 * @return True if the cell was visited by the current search. Otherwise false.
+	 */
+	public boolean isVisited(int id) {
+		return mark(id) == reached + 1;
+	} // end of isVisited()
+
+
+	/**
+	 * @return Distance of a reached cell.
+	 */
+	public int distance(int id) {
+		return distance[id];
+	} // end of distance()
+
+
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	} // end of isEmpty()
+
+
+	public int size() {
+		return queue.size();
+	} // end of size()
+
+
+	/**
+	 * @return Number of cells visited by the current search.
+	 */
+	public int numVisited() {
+		return numVisited;
+	} // end of numVisited()
+
+
+	/**
+	 * @return Number of cells one move away from the cells expanded by the current search,
+	 * i.e. every passage between two expanded cells is counted twice.
+	 */
+	public long numPassages() {
+		return numPassages;
+	} // end of numPassages()
+
+
+	// storage of the marks and distances
+	/**
+	 * Make room for the cells of indices [0, size). Marks of new cells are 0.
+	 */
+	protected void ensureCapacity(int size) {
+		if (mark.length < size) {
+			mark = new int[size];
+			distance = new int[size];
+		}
+	} // end of ensureCapacity()
+
+
+	/**
+	 * Set the mark of every cell to 0.
+	 */
+	protected void clearMarks() {
+		Arrays.fill(mark, 0);
+	} // end of clearMarks()
+
+
+	protected int mark(int id) {
+		return mark[id];
+	} // end of mark()
+
+
+	protected void setMark(int id, int value) {
+		mark[id] = value;
+	} // end of setMark()
+
+
+	protected void setDistance(int id, int dist) {
+		distance[id] = dist;
+	} // end of setDistance()
+
+} // end of class MazeTraversal
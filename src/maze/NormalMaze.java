@@ -1,5 +1,6 @@
 package maze;
 
+import java.io.PrintStream;
 import java.util.*;
 
 import maze.StdDraw;
@@ -18,6 +19,16 @@ public class NormalMaze extends Maze {
  	 */
  	protected boolean isRecorded[][];
 
+	/**
+	 * Number of columns of map[][], used to compute cell indices
+	 */
+	protected int mapC;
+
+	/**
+	 * Accepts the cells recorded by drawFtPrt(Cell), for validate()
+	 */
+	private final MazeTraversal.CellFilter recorded = id -> isRecorded[id / mapC][id % mapC];
+
 	
 	public NormalMaze() {
 		type = NORMAL;
@@ -61,6 +72,7 @@ public class NormalMaze extends Maze {
 		sizeR = rs;
 		sizeC = cs;
 		sizeTunnel = tunnelList.size();
+		mapC = sizeC;
 		
 		// set up map matrix
 		map = new Cell[sizeR][sizeC];
@@ -101,35 +113,15 @@ public class NormalMaze extends Maze {
 	
 	@Override
 	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell currCell = queue.poll();
-			visited[currCell.r][currCell.c] = true;
-			int visitedNeigh = 0;
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell nextCell = currCell.neigh[i];
-				if (!isIn(nextCell) || currCell.wall[i].present)
-					continue;
-				if (visited[nextCell.r][nextCell.c])
-					visitedNeigh += 1; 
-				else
-					queue.add(nextCell);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
+		// every cell is reached, and there is no loop: the cells are joined by
+		// (number of cells - 1) passages, each seen once from both ends
+		MazeTraversal search = MazeTraversal.forThread();
+		search.start(this);
+		search.add(index(entrance), 0);
+		search.search(this, null, -1);
+
+		long numCells = (long) sizeR * sizeC;
+		return search.numVisited() == numCells && search.numPassages() == 2 * (numCells - 1);
 	} // end of isPerfect()
 
 	
@@ -198,69 +190,166 @@ public class NormalMaze extends Maze {
 	public void drawFtPrt(Cell cell) {
  		// record every cell drawn
  		isRecorded[cell.r][cell.c] = true;
+		event(SolverEvents.VISIT, cell);
 
 		// draw nothing if visualization is switched off
 		if (!isVisu)
 			return;
 		
-		StdDraw.setPenColor(StdDraw.GRAY);
-		StdDraw.filledCircle(cell.c + 0.5, cell.r + 0.5, 0.25);
+		paintFtPrt(cell.r * mapC + cell.c);
 	} // end of drawFtPrt()
 	
 
-        @Override
-        public boolean validate() {
-                boolean isValid = true;
-                int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
-
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
-
-                if (stepCount[exit.r][exit.c] == 0) {
-                        isValid = false;
-                        System.out.println("[Validation] Exit is not reached.");
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
-                else {
-                        pathLength = stepCount[exit.r][exit.c];
-                }
-
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
-                                        isValid = false;
-                                        System.out.println("[Validation] Visited cell not reachable.");
-                                        System.out.println("[Validation] Number of cells visited = " + count);
-                                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                                }
-                        }
-                }
-
-                if (isValid) {
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
-
-                return isValid;
-        } // end of validate()
+	@Override
+	public boolean validate(PrintStream out) {
+		return validate(out, true);
+	} // end of validate()
+
+
+	/**
+	 * Check that the cells recorded by drawFtPrt() can be reached from the entrance through
+	 * recorded cells, including the exit, and print the number of cells reached and the
+	 * length of the shortest path through them.
+	 * @param out Receives the validation result.
+	 * @param showCounts Print the counts also if the solution is not valid.
+	 * @return True if the solution is valid. Otherwise false.
+	 */
+	protected boolean validate(PrintStream out, boolean showCounts) {
+		boolean isValid = true;
+		int pathLength = 0;
+
+		MazeTraversal search = MazeTraversal.forThread();
+		search.start(this);
+		search.add(index(entrance), 0);
+		search.search(this, recorded, -1);
+		int count = search.numVisited();
+
+		if (!search.isReached(index(exit))) {
+			isValid = false;
+			out.println("[Validation] Exit is not reached.");
+			if (showCounts) {
+				out.println("[Validation] Number of cells visited = " + count);
+				out.println("[Validation] Path length of the solution = " + pathLength);
+			}
+		}
+		else {
+			pathLength = search.distance(index(exit)) + 1;
+		}
+
+		for (int i = 0; isValid && i < isRecorded.length; i++) {
+			for (int j = 0; isValid && j < isRecorded[i].length; j++) {
+				if (isRecorded[i][j] && !search.isReached(index(i, j))) {
+					isValid = false;
+					out.println("[Validation] Visited cell not reachable.");
+					if (showCounts) {
+						out.println("[Validation] Number of cells visited = " + count);
+						out.println("[Validation] Path length of the solution = " + pathLength);
+					}
+				}
+			}
+		}
+
+		if (isValid) {
+			out.println("[Validation] Number of cells visited = " + count);
+			out.println("[Validation] Path length of the solution = " + pathLength);
+		}
+
+		return isValid;
+	} // end of validate()
+
+
+	@Override
+	public int indexSize() {
+		return sizeR * mapC;
+	} // end of indexSize()
+
+
+	@Override
+	public boolean isCell(int id) {
+		return id >= 0 && id < sizeR * mapC && map[id / mapC][id % mapC] != null;
+	} // end of isCell()
+
+
+	@Override
+	public int index(int r, int c) {
+		return r * mapC + c;
+	} // end of index()
+
+
+	@Override
+	public int row(int id) {
+		return id / mapC;
+	} // end of row()
+
+
+	@Override
+	public int col(int id) {
+		return id % mapC;
+	} // end of col()
+
+
+	@Override
+	public int neighbour(int id, int dir) {
+		Cell next = map[id / mapC][id % mapC].neigh[dir];
+		return next == null ? -1 : next.r * mapC + next.c;
+	} // end of neighbour()
+
+
+	@Override
+	public boolean isOpen(int id, int dir) {
+		Cell cell = map[id / mapC][id % mapC];
+		return cell.neigh[dir] != null && !cell.wall[dir].present;
+	} // end of isOpen()
+
+
+	@Override
+	public void carve(int id, int dir) {
+		map[id / mapC][id % mapC].wall[dir].present = false;
+	} // end of carve()
+
+
+	@Override
+	public int tunnel(int id) {
+		Cell next = map[id / mapC][id % mapC].tunnelTo;
+		return next == null ? -1 : next.r * mapC + next.c;
+	} // end of tunnel()
+
+
+	@Override
+	public int passages(int id, int next[]) {
+		Cell cell = map[id / mapC][id % mapC];
+		int n = 0;
+		for (int i = 0; i < NUM_DIR; i++) {
+			Cell neigh = cell.neigh[i];
+			if (neigh != null && !cell.wall[i].present)
+				next[n++] = neigh.r * mapC + neigh.c;
+		}
+		if (cell.tunnelTo != null)
+			next[n++] = cell.tunnelTo.r * mapC + cell.tunnelTo.c;
+		return n;
+	} // end of passages()
+
+
+	@Override
+	public int openDirs(int id) {
+		Cell cell = map[id / mapC][id % mapC];
+		int dirs = 0;
+		for (int i = 0; i < NUM_DIR; i++)
+			if (cell.neigh[i] != null && !cell.wall[i].present)
+				dirs |= 1 << i;
+		return dirs;
+	} // end of openDirs()
+
+
+	@Override
+	public void drawFtPrt(int id) {
+		drawFtPrt(map[id / mapC][id % mapC]);
+	} // end of drawFtPrt()
+
+
+	@Override
+	public boolean isRecorded(int id) {
+		return isRecorded[id / mapC][id % mapC];
+	} // end of isRecorded()
 
 } // end of class NormalMaze
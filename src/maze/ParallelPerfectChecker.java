@@ -0,0 +1,216 @@
+package maze;
+
+import static maze.Maze.WEST;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Checks whether a maze is perfect without walking it cell by cell.
+ *
+ * A maze is perfect if its passages (and tunnels) form a tree: every cell can
+ * be reached from the entrance and there is no loop. This is what isPerfect()
+ * of every maze checks with a breadth first search, so the results are the same.
+ *
+ * The parent array is kept between calls per thread, grown to the largest maze checked so
+ * far, so the checker may check on many threads at once. With more than one thread, the
+ * bands are joined on a pool of threads kept by the checker.
+ *
+ */
+public class ParallelPerfectChecker {
+
+	private int parallelism;
+	private ForkJoinPool pool = null;
+	// parent array of the union-find, per thread
+	private final ThreadLocal<int[]> parents = ThreadLocal.withInitial(() -> new int[0]);
+
+
+	/**
+	 * default constructor, checks on every available processor
+	 */
+	public ParallelPerfectChecker() {
+		this(Runtime.getRuntime().availableProcessors());
+	} // end of ParallelPerfectChecker()
+
+
+	/**
+	 * construct the checker
+	 * @param parallelism Number of threads, 1 to check on the calling thread only.
+	 */
+	public ParallelPerfectChecker(int parallelism) {
+		this.parallelism = Math.max(parallelism, 1);
+	} // end of ParallelPerfectChecker()
+
+
+	/**
+	 * Check whether a maze is perfect:
+	 *
+	 * 1. Put every cell into a set of its own.
+	 *
+	 * 2. For every passage and tunnel, join the sets of the cells at both ends. Count the
+	 *    passages, and the passages joining two different sets.
+	 *
+	 * 3. The maze is perfect if both counts are the number of cells - 1: the passages join
+	 *    every cell into one set, with no passage left over to close a loop.
+	 *
+	 * Every passage is seen once, from the cell in its EAST, NORTHEAST or NORTH direction.
+	 * Sets are a union-find over an int parent array with path halving.
+	 *
+	 * With more than one thread, the cells are split into bands of consecutive indices (rows).
+	 * Every thread joins the passages inside its band, and only touches the parent array of
+	 * its band. Passages between bands are kept and joined on the calling thread afterwards.
+	 *
+	 * @param maze The maze to check.
+	 * @return True if the maze is perfect. Otherwise false.
+	 */
+	public boolean isPerfect(final Maze maze) {
+		final int size = maze.indexSize();
+		if (parents.get().length < size)
+			parents.set(new int[size]);
+		final int parent[] = parents.get();
+		long numCells = 0;
+		long numPassages = 0;
+		long numJoins = 0;
+
+		if (parallelism == 1) {
+			Band band = new Band(parent, 0, size);
+			band.join(maze);
+			numCells = band.numCells;
+			numPassages = band.numPassages;
+			numJoins = band.numJoins + joinBetween(parent, band);
+		} else {
+			final int step = (size + parallelism - 1) / parallelism;
+			List<Band> bands = new ArrayList<>();
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int from = 0; from < size; from += step) {
+				final Band band = new Band(parent, from, Math.min(from + step, size));
+				bands.add(band);
+				tasks.add(pool().submit(() -> band.join(maze)));
+			}
+			for (ForkJoinTask<?> task : tasks)
+				task.join();
+
+			for (Band band : bands) {
+				numCells += band.numCells;
+				numPassages += band.numPassages;
+				numJoins += band.numJoins;
+			}
+			// passages between bands
+			if (numPassages == numCells - 1)
+				for (Band band : bands)
+					numJoins += joinBetween(parent, band);
+		}
+
+		return numPassages == numCells - 1 && numJoins == numCells - 1;
+	} // end of isPerfect()
+
+
+	/**
+	 * Pool of the threads joining bands, started by the first maze checked in parallel.
+	 * Its threads are daemons, and end when idle.
+	 */
+	private synchronized ForkJoinPool pool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
+		return pool;
+	} // end of pool()
+
+
+	/**
+	 * Cells of consecutive indices [lo, hi), joined by one thread.
+	 */
+	private static class Band {
+		int parent[];
+		int lo;
+		int hi;
+		long numCells = 0;
+		long numPassages = 0;
+		long numJoins = 0;
+		// pairs of cells of passages leaving the band
+		IntStack between = new IntStack();
+
+		Band(int parent[], int lo, int hi) {
+			this.parent = parent;
+			this.lo = lo;
+			this.hi = hi;
+		} // end of Band()
+
+		void join(Maze maze) {
+			for (int id = lo; id < hi; id++)
+				parent[id] = id;
+
+			for (int id = lo; id < hi; id++) {
+				if (!maze.isCell(id))
+					continue;
+				numCells++;
+				// a tunnel is a passage, seen from the end with the lower index
+				int tunnel = maze.tunnel(id);
+				if (tunnel >= id)
+					pass(id, tunnel);
+				for (int i = 0; i < WEST; i++)
+					if (maze.isOpen(id, i))
+						pass(id, maze.neighbour(id, i));
+			}
+		} // end of join()
+
+		/**
+		 * Count a passage from cell id to a cell of a higher index, and join it if it is inside the band.
+		 */
+		void pass(int id, int next) {
+			numPassages++;
+			if (next < hi) {
+				if (union(parent, id, next))
+					numJoins++;
+			} else {
+				between.push(id);
+				between.push(next);
+			}
+		} // end of pass()
+	} // end of class Band
+
+
+	/**
+	 * Join the passages leaving a band.
+	 * @return Number of passages joining two different sets.
+	 */
+	private static long joinBetween(int parent[], Band band) {
+		long numJoins = 0;
+		for (int i = 0; i < band.between.size(); i += 2)
+			if (union(parent, band.between.get(i), band.between.get(i + 1)))
+				numJoins++;
+		return numJoins;
+	} // end of joinBetween()
+
+
+	/**
+	 * Representative of the set of a cell, halving the path on the way.
+	 */
+	private static int find(int parent[], int cell) {
+		while (parent[cell] != cell) {
+			parent[cell] = parent[parent[cell]];
+			cell = parent[cell];
+		}
+		return cell;
+	} // end of find()
+
+
+	/**
+	 * Join the sets of two cells.
+	 * @return True if they were in different sets. Otherwise false.
+	 */
+	private static boolean union(int parent[], int a, int b) {
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		if (rootA == rootB)
+			return false;
+		// link the lower index under the higher one
+		if (rootA < rootB)
+			parent[rootA] = rootB;
+		else
+			parent[rootB] = rootA;
+		return true;
+	} // end of union()
+
+} // end of class ParallelPerfectChecker
@@ -0,0 +1,165 @@
+package maze;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stream of the events of a solver, for anything following a solve apart from the solver:
+ * drawing, recording, metrics or trace files.
+ *
+ * The solving thread publishes events (maze.event(), and drawFtPrt() for VISIT) into a
+ * LongRing, without locks. A thread of the stream drains the ring and passes the events to
+ * its consumers in order, so consumers never slow the solver down unless the ring is full,
+ * when publish() waits for room: events are never dropped. A maze without a stream (the
+ * default, Maze.events null) costs the solver one branch per event.
+ *
+ * Usage: set maze.events to a started stream before solving, call flush() after solving to
+ * wait for the consumers, and close() when done with the stream.
+ *
+ * @author rommel gaddi
+ */
+public class SolverEvents implements Runnable {
+
+	// event types
+	public final static int VISIT = 0;
+	public final static int BACKTRACK = 1;
+	public final static int TUNNEL = 2;
+	public final static int MEET = 3;
+	public final static int NUM_TYPES = 4;
+	public final static String TYPE_NAMES[] = { "visit", "backtrack", "tunnel", "meet" };
+
+	private final static int CAPACITY = 1 << 16;
+	private final static int BATCH = 1024;
+	// wait of the stream thread when there are no events
+	private final static long IDLE_NANOS = 50000;
+
+	/**
+	 * Receiver of the events of a stream, called on the thread of the stream only.
+	 */
+	public interface Consumer {
+		/**
+		 * @param type One of VISIT, BACKTRACK, TUNNEL or MEET.
+		 * @param id Index of the cell (see Maze.index()): the cell visited, backtracked to,
+		 * tunnelled to, or where the two searches of a bidirectional solver met.
+		 */
+		void event(int type, int id);
+
+		/**
+		 * Called by flush(), once every event published before is passed on.
+		 */
+		default void flush() {
+		}
+	} // end of interface Consumer
+
+	private final Consumer consumers[];
+	private final LongRing ring = new LongRing(CAPACITY);
+	private Thread thread = null;
+	// events published, solving thread only
+	private long published = 0;
+	// events passed on to the consumers
+	private volatile long passed = 0;
+	// flush() asks for every event up to flushTo, and waits for flushed
+	private volatile long flushTo = 0;
+	private volatile long flushed = 0;
+	private volatile boolean isClosed = false;
+
+
+	/**
+	 * construct the stream
+	 * @param consumers Receive every event, in this order.
+	 */
+	public SolverEvents(Consumer... consumers) {
+		this.consumers = consumers.clone();
+	} // end of SolverEvents()
+
+
+	/**
+	 * Start the thread passing the events on.
+	 * @return This stream.
+	 */
+	public SolverEvents start() {
+		thread = new Thread(this, "SolverEvents");
+		thread.setDaemon(true);
+		thread.start();
+		return this;
+	} // end of start()
+
+
+	/**
+	 * Publish an event, from the solving thread only. Waits only if the ring is full.
+	 * @param type One of VISIT, BACKTRACK, TUNNEL or MEET.
+	 * @param id Index of the cell.
+	 */
+	public void publish(int type, int id) {
+		long event = (long) type << 32 | (id & 0xffffffffL);
+		while (!ring.offer(event))
+			Thread.yield();
+		published++;
+	} // end of publish()
+
+
+	/**
+	 * Wait until every event published so far is passed on, and the consumers are flushed.
+	 * From the solving thread only.
+	 */
+	public void flush() {
+		long to = published;
+		flushTo = to;
+		LockSupport.unpark(thread);
+		while (flushed < to && thread.isAlive())
+			LockSupport.parkNanos(IDLE_NANOS);
+	} // end of flush()
+
+
+	/**
+	 * Flush, and stop the thread of the stream.
+	 */
+	public void close() {
+		flush();
+		isClosed = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	} // end of close()
+
+
+	/**
+	 * @return Number of events passed on to the consumers so far.
+	 */
+	public long passed() {
+		return passed;
+	} // end of passed()
+
+
+	@Override
+	public void run() {
+		long batch[] = new long[BATCH];
+		long count = 0;
+		while (true) {
+			int n = ring.drain(batch);
+			for (int i = 0; i < n; i++) {
+				int type = (int) (batch[i] >>> 32);
+				int id = (int) batch[i];
+				for (Consumer consumer : consumers)
+					consumer.event(type, id);
+			}
+			count += n;
+			passed = count;
+
+			long to = flushTo;
+			if (to > flushed && count >= to) {
+				for (Consumer consumer : consumers)
+					consumer.flush();
+				flushed = to;
+			}
+			if (n == 0) {
+				if (isClosed)
+					return;
+				LockSupport.parkNanos(IDLE_NANOS);
+			}
+		}
+	} // end of run()
+
+} // end of class SolverEvents
@@ -0,0 +1,76 @@
+package maze;
+
+/**
+ * Consumer of SolverEvents counting the events of a solve by type, and how fast they came.
+ * Read the counts after SolverEvents.flush().
+ *
+ * @author rommel gaddi
+ */
+public class SolverMetrics implements SolverEvents.Consumer {
+
+	private long counts[] = new long[SolverEvents.NUM_TYPES];
+	// time of the first and the last event, as seen by the stream
+	private long first = 0;
+	private long last = 0;
+
+
+	@Override
+	public void event(int type, int id) {
+		last = System.nanoTime();
+		if (first == 0)
+			first = last;
+		counts[type]++;
+	} // end of event()
+
+
+	/**
+	 * @param type Event type, see SolverEvents.
+	 * @return Number of events of the type so far.
+	 */
+	public long count(int type) {
+		return counts[type];
+	} // end of count()
+
+
+	/**
+	 * @return Number of events so far.
+	 */
+	public long total() {
+		long total = 0;
+		for (long count : counts)
+			total += count;
+		return total;
+	} // end of total()
+
+
+	/**
+	 * @return Events a second, from the first event to the last.
+	 */
+	public double rate() {
+		return last > first ? total() * 1e9 / (last - first) : 0;
+	} // end of rate()
+
+
+	/**
+	 * Start counting again, e.g. for the next solve.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = 0;
+		first = 0;
+		last = 0;
+	} // end of reset()
+
+
+	/**
+	 * @return The counts, e.g. "visit 120, backtrack 80, tunnel 0, meet 1 (2.5e+06 events/s)".
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (int type = 0; type < counts.length; type++)
+			text.append(type == 0 ? "" : ", ").append(SolverEvents.TYPE_NAMES[type]).append(' ').append(counts[type]);
+		return text.append(String.format(" (%.2g events/s)", rate())).toString();
+	} // end of toString()
+
+} // end of class SolverMetrics
@@ -1497,6 +1497,27 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
         draw();
     }
 
+    /**
+     * Display on screen the part of the drawing within the given rectangle,
+     * whether or not animation mode is on, without pausing.
+     * Only that part is copied to the screen and repainted, which is much
+     * cheaper than {@code show()} when a few small shapes changed.
+     * @param x0 the x-coordinate of one corner
+     * @param y0 the y-coordinate of one corner
+     * @param x1 the x-coordinate of the opposite corner
+     * @param y1 the y-coordinate of the opposite corner
+     */
+    public static void showRegion(double x0, double y0, double x1, double y1) {
+        // round outwards, one pixel more for antialiasing
+        int px0 = Math.max(0, (int) Math.floor(Math.min(scaleX(x0), scaleX(x1))) - 1);
+        int px1 = Math.min(width, (int) Math.ceil(Math.max(scaleX(x0), scaleX(x1))) + 1);
+        int py0 = Math.max(0, (int) Math.floor(Math.min(scaleY(y0), scaleY(y1))) - 1);
+        int py1 = Math.min(height, (int) Math.ceil(Math.max(scaleY(y0), scaleY(y1))) + 1);
+        if (px0 >= px1 || py0 >= py1) return;
+        onscreen.drawImage(offscreenImage, px0, py0, px1, py1, px0, py0, px1, py1, null);
+        frame.getContentPane().repaint(px0, py0, px1 - px0, py1 - py0);
+    }
+
     // draw onscreen if defer is false
     private static void draw() {
         if (defer) return;
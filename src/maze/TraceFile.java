@@ -0,0 +1,295 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary trace of the events of a solver (see SolverEvents), so a solve can be looked at,
+ * validated or drawn again without solving the maze again.
+ *
+ * Layout, little-endian:
+ *   int  magic "MZTR", version
+ *   int  maze type, number of rows, number of columns, index size (Maze.indexSize())
+ *   int  row stride of the index, index(1, 0) - index(0, 0)
+ *   long number of events, 0 if the trace was not closed
+ *   the events, one byte or more each
+ *
+ * Every event is encoded by the difference of its cell index to one of two cursors: the cell
+ * of the event before, or the cell before that one (0 before the first events), so the two
+ * searches of a bidirectional solver, taking turns, each step from their own cell. An event
+ * at the cell of the event before leaves the cursors as they are. The two lowest bits of the
+ * first byte hold the type, the next bit the cursor, the other five a code:
+ *   0 to 8    a move of at most one row and one column, 3 * zigzag(rows) + zigzag(columns)
+ *   9 to 30   a small difference, 9 + zigzag(difference)
+ *   31        followed by zigzag(difference) as a varint, 7 bits a byte, lowest first
+ * zigzag(0) = 0, zigzag(-1) = 1, zigzag(1) = 2, zigzag(-2) = 3 and so on. Solvers mostly step
+ * to a neighbour, so most events take one byte, and 100 million steps about 100 MB.
+ *
+ * The trace is written through a FileChannel from a direct buffer of BUFFER_SIZE bytes, on
+ * the thread of the event stream, so writing costs the solver nothing.
+ *
+ * @author rommel gaddi
+ */
+public class TraceFile {
+
+	public final static int MAGIC = 0x52545A4D;
+	public final static int VERSION = 1;
+
+	private final static int HEADER = 36;
+	private final static int COUNT_AT = 28;
+	private final static int BUFFER_SIZE = 1 << 20;
+	// longest event, the first byte and a varint of 64 bits
+	private final static int MAX_EVENT = 11;
+	// codes of the first byte
+	private final static int SMALL = 9;
+	private final static int ESCAPE = 31;
+
+	private String fileName;
+
+
+	/**
+	 * construct the file
+	 * @param fileName Name of the file to write to or replay from.
+	 */
+	public TraceFile(String fileName) {
+		this.fileName = fileName;
+	} // end of TraceFile()
+
+
+	/**
+	 * Create the file, overwriting it, and a consumer writing the events of a stream to it.
+	 * @param maze The maze to be solved.
+	 * @return The writer, to be closed after flushing the stream.
+	 */
+	public Writer writer(Maze maze) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new Writer(channel, maze);
+	} // end of writer()
+
+
+	/**
+	 * Pass the events of the trace to a consumer, in order, on the calling thread.
+	 * @param maze Maze the trace was written for, or one loaded from the same maze file.
+	 * @param consumer Receives the events; flush() is called at the end.
+	 * @return Number of events.
+	 * @throws IOException If the file cannot be read, is not a trace, is truncated, is of another maze
+	 * or is corrupt (an event of an index that is not a cell of the maze).
+	 */
+	public long replay(Maze maze, SolverEvents.Consumer consumer) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.limit(HEADER);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+				;
+			buffer.flip();
+			if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				throw new IOException(fileName + " is not a trace file.");
+			if (buffer.getInt() != maze.type || buffer.getInt() != maze.sizeR || buffer.getInt() != maze.sizeC
+					|| buffer.getInt() != maze.indexSize())
+				throw new IOException(fileName + " is a trace of another maze.");
+			int stride = buffer.getInt();
+			long numEvents = buffer.getLong();
+
+			long count = 0;
+			long cursors[] = new long[2];
+			boolean isEnd = false;
+			buffer.clear();
+			buffer.flip();
+			while (true) {
+				// keep a whole event in the buffer while the file lasts
+				if (buffer.remaining() < MAX_EVENT && !isEnd) {
+					buffer.compact();
+					while (buffer.hasRemaining() && !isEnd)
+						isEnd = channel.read(buffer) < 0;
+					buffer.flip();
+				}
+				if (!buffer.hasRemaining())
+					break;
+
+				int first = buffer.get() & 0xFF;
+				int code = first >>> 3;
+				long difference;
+				if (code < SMALL) {
+					difference = unzigzag(code / 3) * stride + unzigzag(code % 3);
+				} else if (code < ESCAPE) {
+					difference = unzigzag(code - SMALL);
+				} else {
+					long zigzag = 0;
+					int b;
+					int shift = 0;
+					do {
+						if (!buffer.hasRemaining())
+							throw new IOException(fileName + " is truncated.");
+						b = buffer.get();
+						zigzag |= (long) (b & 0x7F) << shift;
+						shift += 7;
+					} while ((b & 0x80) != 0);
+					difference = unzigzag(zigzag);
+				}
+				long id = cursors[first >>> 2 & 1] + difference;
+				if (id < 0 || id >= maze.indexSize() || !maze.isCell((int) id))
+					throw new IOException(fileName + " is corrupt.");
+				if (id != cursors[0]) {
+					cursors[1] = cursors[0];
+					cursors[0] = id;
+				}
+				consumer.event(first & 3, (int) id);
+				count++;
+			}
+			consumer.flush();
+
+			if (numEvents != 0 && count != numEvents)
+				throw new IOException(fileName + " is truncated.");
+			return count;
+		}
+	} // end of replay()
+
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	} // end of zigzag()
+
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	} // end of unzigzag()
+
+
+	/**
+	 * Consumer of SolverEvents writing every event to a trace file.
+	 */
+	public static class Writer implements SolverEvents.Consumer, Closeable {
+
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private int stride;
+		private long cursors[] = new long[2];
+		private long count = 0;
+
+
+		private Writer(FileChannel channel, Maze maze) throws IOException {
+			this.channel = channel;
+			stride = maze.sizeR > 1 ? maze.index(1, 0) - maze.index(0, 0) : maze.indexSize();
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(maze.type).putInt(maze.sizeR).putInt(maze.sizeC);
+			buffer.putInt(maze.indexSize()).putInt(stride).putLong(0);
+		} // end of Writer()
+
+
+		@Override
+		public void event(int type, int id) {
+			if (buffer.remaining() < MAX_EVENT)
+				write();
+			long near = id - cursors[0];
+			long far = id - cursors[1];
+			if (id != cursors[0]) {
+				cursors[1] = cursors[0];
+				cursors[0] = id;
+			}
+			count++;
+
+			// a move of at most one row and one column from either cursor
+			long code = moveCode(near);
+			if (code >= 0) {
+				put(type, 0, code);
+				return;
+			}
+			code = moveCode(far);
+			if (code >= 0) {
+				put(type, 1, code);
+				return;
+			}
+			// otherwise the smaller difference
+			int cursor = Math.abs(far) < Math.abs(near) ? 1 : 0;
+			long zigzag = zigzag(cursor == 0 ? near : far);
+			if (zigzag < ESCAPE - SMALL) {
+				put(type, cursor, SMALL + zigzag);
+				return;
+			}
+			put(type, cursor, ESCAPE);
+			while ((zigzag & ~0x7FL) != 0) {
+				buffer.put((byte) (zigzag | 0x80));
+				zigzag >>>= 7;
+			}
+			buffer.put((byte) zigzag);
+		} // end of event()
+
+
+		/**
+		 * @return Code of a move of at most one row and one column, -1 if the difference is not one.
+		 */
+		private long moveCode(long difference) {
+			for (int rows = -1; rows <= 1; rows++) {
+				long columns = difference - (long) rows * stride;
+				if (columns >= -1 && columns <= 1)
+					return 3 * zigzag(rows) + zigzag(columns);
+			}
+			return -1;
+		} // end of moveCode()
+
+
+		/**
+		 * Put the first byte of an event.
+		 */
+		private void put(int type, int cursor, long code) {
+			buffer.put((byte) (type | cursor << 2 | code << 3));
+		} // end of put()
+
+
+		/**
+		 * Write the events so far to the file.
+		 */
+		@Override
+		public void flush() {
+			write();
+		} // end of flush()
+
+
+		/**
+		 * Write the events so far and their number, and close the file. Flush the stream first.
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				write();
+				ByteBuffer number = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+				number.putLong(count).flip();
+				channel.write(number, COUNT_AT);
+			} finally {
+				channel.close();
+			}
+		} // end of close()
+
+
+		/**
+		 * @return Number of events written so far.
+		 */
+		public long count() {
+			return count;
+		} // end of count()
+
+
+		/**
+		 * Write out the buffer.
+		 * @throws UncheckedIOException If the file cannot be written.
+		 */
+		private void write() {
+			buffer.flip();
+			try {
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buffer.clear();
+		} // end of write()
+
+	} // end of class Writer
+
+} // end of class TraceFile
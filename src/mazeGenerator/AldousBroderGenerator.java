@@ -0,0 +1,79 @@
+package mazeGenerator;
+
+import java.util.Random;
+import maze.Maze;
+
+/**
+ * Implements the Aldous-Broder maze generating algorithm, which picks every
+ * perfect maze with the same probability, optionally finished by Wilson's algorithm.
+ *
+ * @author rommel gaddi
+ */
+public class AldousBroderGenerator extends WilsonGenerator {
+
+	private double switchRatio;
+
+
+	/**
+	 * default constructor, plain Aldous-Broder
+	 */
+	public AldousBroderGenerator() {
+		this(1);
+	} // end of AldousBroderGenerator()
+
+
+	/**
+	 * construct the generator
+	 * @param switchRatio Share of cells in the maze at which to switch to Wilson's algorithm,
+	 * 1 for plain Aldous-Broder. Below 1 the maze is generated much faster, but is no longer
+	 * exactly uniform.
+	 */
+	public AldousBroderGenerator(double switchRatio) {
+		this.switchRatio = switchRatio;
+	} // end of AldousBroderGenerator()
+
+
+    /**
+     * Generate a perfect maze inside the input maze object using Aldous-Broder Algorithm:
+     *
+     * Input: Maze M, all walls built up, start and exit points marked.
+     * Output: Maze M, appropriate walls knocked down to form a perfect maze from start to exit.
+     *
+     * 1. Add a random cell to the maze.
+     *
+     * 2. Walk randomly. Whenever the walk enters a cell not yet in the maze, knock down the wall
+     *    just crossed and add the cell to the maze.
+     *
+     * 3. Repeat step 2 until every cell is in the maze.
+     *
+     * The walk finds new cells quickly while the maze is small, but spends most of its time on
+     * the last few cells, where Wilson's algorithm is quick. So once switchRatio of the cells are
+     * in the maze, the remaining cells are added by Wilson's algorithm (see WilsonGenerator).
+     * Each part alone is uniform, but the switch is not: which cells are in the maze at that
+     * point depends on where the walk happens to be, e.g. on a 2 x 3 maze with switchRatio 0.5
+     * some of the 15 mazes come up 20% more often than others. Use WilsonGenerator when the
+     * maze must be uniform.
+     *
+     * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
+     */
+	@Override
+	public void generateMaze(Maze maze, Random randomInt) {
+		Context context = start(maze);
+		int cell = addRandomCell(context, maze, randomInt);
+
+		long numCells = (long) maze.sizeR * maze.sizeC;
+		while (context.numInMaze < numCells && context.numInMaze < switchRatio * numCells) {
+			int step = randomStep(maze, cell, randomInt);
+			int nextCell = stepTo(maze, cell, step);
+			if (!context.inMaze.get(nextCell)) {
+				carve(maze, cell, step);
+				add(context, maze, nextCell);
+			}
+			cell = nextCell;
+		}
+
+		walkToMaze(context, maze, randomInt);
+	} // end of generateMaze()
+
+} // end of class AldousBroderGenerator
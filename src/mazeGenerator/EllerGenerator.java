@@ -0,0 +1,174 @@
+package mazeGenerator;
+
+import java.io.IOException;
+import java.util.Random;
+import maze.Maze;
+import static maze.Maze.EAST;
+import static maze.Maze.NORMAL;
+import static maze.Maze.NORTH;
+
+/**
+ * Implements Eller's maze generating algorithm.
+ *
+ * The maze is built one row at a time, keeping only set labels of the current
+ * row, so memory is O(number of columns). Rows can be written into a Maze, or
+ * handed to a RowSink as they are finished, so the maze never has to fit in memory.
+ *
+ * @author rommel gaddi
+ */
+public class EllerGenerator implements MazeGenerator {
+
+	/**
+	 * Receives the rows of a maze from bottom (row 0) to top.
+	 */
+	public interface RowSink {
+		/**
+		 * Accept a finished row. The arrays are reused for the next row.
+		 * @param r Row number.
+		 * @param eastOpen eastOpen[c] is true if the EAST wall of cell (r, c) is knocked down.
+		 * @param northOpen northOpen[c] is true if the NORTH wall of cell (r, c) is knocked down.
+		 */
+		public void row(long r, boolean eastOpen[], boolean northOpen[]) throws IOException;
+	} // end of interface RowSink
+
+
+    /**
+     * Generate a perfect maze inside the input maze object using Eller's Algorithm,
+     * see generate(). Only normal mazes (NormalMaze or CompactNormalMaze) are supported.
+     *
+     * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
+     */
+	@Override
+	public void generateMaze(final Maze maze, Random randomInt) {
+        // Accepts only Normal Maze Type
+        if (maze.type != NORMAL) {
+        	System.out.println("Error! This generator only supports Normal maze");
+        	return;
+        }
+
+		try {
+			generate(maze.sizeR, maze.sizeC, randomInt, (r, eastOpen, northOpen) -> {
+				for (int c = 0; c < maze.sizeC; c++) {
+					int cell = maze.index((int) r, c);
+					if (eastOpen[c])
+						maze.carve(cell, EAST);
+					if (northOpen[c])
+						maze.carve(cell, NORTH);
+				}
+			});
+		} catch (IOException e) {
+			// writing into a maze does not throw
+			throw new IllegalStateException(e);
+		}
+	} // end of generateMaze()
+
+
+    /**
+     * Generate a perfect rectangular maze row by row using Eller's Algorithm:
+     *
+     * 1. Put every cell of the row that has no set into a new set of its own.
+     *
+     * 2. Randomly knock down EAST walls between neighboring cells in different sets, joining the sets.
+     *
+     * 3. Randomly knock down NORTH walls, at least one for each set. The cells above join the sets.
+     *
+     * 4. Repeat steps 1-3 for the next row. In the last row, knock down every EAST wall between
+     *    different sets instead, and no NORTH wall.
+     *
+     * A set label is a column of the row holding a cell of the set, so labels of a row fit in
+     * [0, cols). Within a row, sets are joined by a union-find on columns.
+     *
+     * @param rows Number of rows.
+     * @param cols Number of columns.
+     * @param randomInt Source of random numbers
+     * @param sink Receives every row when it is finished.
+     */
+	public void generate(long rows, int cols, Random randomInt, RowSink sink) throws IOException {
+		int label[] = new int[cols];
+		int parent[] = new int[cols];
+		int count[] = new int[cols];
+		int chosen[] = new int[cols];
+		int firstUp[] = new int[cols];
+		boolean eastOpen[] = new boolean[cols];
+		boolean northOpen[] = new boolean[cols];
+		boolean setUp[] = new boolean[cols];
+
+		// every cell of the first row in a set of its own
+		for (int c = 0; c < cols; c++)
+			label[c] = c;
+
+		for (long r = 0; r < rows; r++) {
+			boolean lastRow = r == rows - 1;
+
+			for (int c = 0; c < cols; c++) {
+				parent[c] = label[c];
+				eastOpen[c] = false;
+				northOpen[c] = false;
+			}
+
+			// join neighboring sets
+			for (int c = 0; c + 1 < cols; c++) {
+				int a = find(parent, c);
+				int b = find(parent, c + 1);
+				if (a != b && (lastRow || randomInt.nextBoolean())) {
+					eastOpen[c] = true;
+					parent[b] = a;
+				}
+			}
+
+			if (!lastRow) {
+				// knock down NORTH walls at random, and pick one cell of each set at random
+				for (int c = 0; c < cols; c++) {
+					count[c] = 0;
+					setUp[c] = false;
+				}
+				for (int c = 0; c < cols; c++) {
+					int set = find(parent, c);
+					count[set]++;
+					if (randomInt.nextInt(count[set]) == 0)
+						chosen[set] = c;
+					if (randomInt.nextBoolean()) {
+						northOpen[c] = true;
+						setUp[set] = true;
+					}
+				}
+				// every set must go up at least once
+				for (int c = 0; c < cols; c++) {
+					if (count[c] > 0 && !setUp[c])
+						northOpen[chosen[c]] = true;
+				}
+			}
+
+			sink.row(r, eastOpen, northOpen);
+
+			// labels of the next row: cells above a NORTH opening keep the set,
+			// labelled by the first such column; the others get a new set
+			for (int c = 0; c < cols; c++)
+				firstUp[c] = -1;
+			for (int c = 0; c < cols; c++) {
+				if (northOpen[c]) {
+					int set = find(parent, c);
+					if (firstUp[set] < 0)
+						firstUp[set] = c;
+					label[c] = firstUp[set];
+				} else {
+					label[c] = c;
+				}
+			}
+		}
+	} // end of generate()
+
+
+	/**
+	 * Set of a column, halving the path on the way.
+	 */
+	private static int find(int parent[], int c) {
+		while (parent[c] != c) {
+			parent[c] = parent[parent[c]];
+			c = parent[c];
+		}
+		return c;
+	} // end of find()
+
+} // end of class EllerGenerator
@@ -1,27 +1,66 @@
 package mazeGenerator;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Random;
-import java.util.HashSet;
+import maze.IntQueue;
 import maze.Maze;
-import maze.Cell;
 import static maze.Maze.HEX;
-import static maze.Maze.NORMAL;
 import static maze.Maze.NUM_DIR;
 
 
 /**
  * Implements the Growing Tree maze generating algorithm.
  *
+ * The visited cells and Z are kept between calls in a Context per thread, so the generator
+ * may generate on many threads at once.
+ *
  * @author rommel gaddi
  */
 public class GrowingTreeGenerator implements MazeGenerator {
-	// Growing tree maze generator. As it is very general, here we implement as "usually pick the most recent cell, but occasionally pick a random cell"
-	
-	double threshold = 0.1;
-	
-    private Maze mMaze;
-    private HashSet<Cell> visitedCells;
+	// Growing tree maze generator. The strategy to select a cell from Z is one of:
+	// NEWEST behaves like the recursive backtracker, RANDOM like Prim's algorithm,
+	// OLDEST grows long straight corridors, and MIXED "usually picks the most recent
+	// cell, but occasionally picks a random cell" with probability threshold.
+
+	/**
+	 * strategies to select cell b from Z
+	 */
+	public final static int NEWEST = 0;
+	public final static int RANDOM = 1;
+	public final static int OLDEST = 2;
+	public final static int MIXED = 3;
+
+	/**
+	 * State of a generation, per thread.
+	 */
+	private static class Context {
+		BitSet visitedCells = new BitSet();
+		IntQueue cellRepositoryZ = new IntQueue();
+		int unvisitedNeighbors[] = new int[NUM_DIR];
+	} // end of class Context
+
+	private int strategy;
+	private double threshold;
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+	/**
+	 * default constructor, selects a random cell
+	 */
+	public GrowingTreeGenerator() {
+		this(RANDOM, 0.1);
+	} // end of GrowingTreeGenerator()
+
+
+	/**
+	 * construct the generator
+	 * @param strategy One of NEWEST, RANDOM, OLDEST and MIXED.
+	 * @param threshold Probability that MIXED selects a random cell instead of the newest cell.
+	 */
+	public GrowingTreeGenerator(int strategy, double threshold) {
+		this.strategy = strategy;
+		this.threshold = threshold;
+	} // end of GrowingTreeGenerator()
 
 
     /**
@@ -39,109 +78,104 @@ public class GrowingTreeGenerator implements MazeGenerator {
      *
      * 3. Repeat step 2 until Z is empty.
      *
+     * Z is a deque of cell indices in the order they were added. Removing cell b moves the oldest
+     * cell into its place (IntQueue.removeAt()), so removal is O(1) and the newest cell stays at
+     * the tail, and every strategy runs in linear time.
+     *
+     * In a tunnel maze, a tunnel must be part of the tree: when a cell with a tunnel is added to Z,
+     * the other end of the tunnel is added right after it, so it is never reached by a carved path.
+     *
      * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
      */
     @Override
-    public void generateMaze(Maze maze) {
-        mMaze = maze;
-        visitedCells = new HashSet<>();
-        ArrayList<Cell> mazeCells = new ArrayList<>();
-        ArrayList<Cell> cellRepositoryZ = new ArrayList<>();
-        Cell cellB = null;
-        int randomNeighbor = 0;
-        Random randomInt = new Random(System.currentTimeMillis());        
-        
-        // Accepts only Normal or Hex Maze Type
-        if ((mMaze.type != NORMAL) && (mMaze.type != HEX) ) { 
-        	System.out.println("Error! This generator only supports Normal and Hex type of maze");
-        	return;
+    public void generateMaze(Maze maze, Random randomInt) {
+        Context context = contexts.get();
+        context.visitedCells.clear();
+        context.cellRepositoryZ.clear();
+        BitSet visitedCells = context.visitedCells;
+        IntQueue cellRepositoryZ = context.cellRepositoryZ;
+        int unvisitedNeighbors[] = context.unvisitedNeighbors;
+        int cellB;
+
+        // select random cell b
+        if (maze.type == HEX) {
+            int k = randomInt.nextInt(maze.sizeR * maze.sizeC);
+            int r = k / maze.sizeC;
+            cellB = maze.index(r, k % maze.sizeC + (r + 1) / 2);
+        } else {
+            int r = randomInt.nextInt(maze.sizeR);
+            cellB = maze.index(r, randomInt.nextInt(maze.sizeC));
         }
-        
-        if (mMaze.type == HEX) {
-        	
-        	// get the size of the maze for Hex
-            mazeCells = new ArrayList<>();
-            for (int i = 0; i < mMaze.sizeR; i++) {
-                for (int j = (i + 1) / 2; j < mMaze.sizeC + (i + 1) / 2; j++) {
-                    if (!isCellInMazeAndNotVisited(mMaze.map[i][j]))
-                        continue;
-                    mazeCells.add(mMaze.map[i][j]);
-                }
-            }
-        	// select random cell b
-            cellB = mazeCells.get(randomInt.nextInt(mazeCells.size()));
-        } 
-        else if (mMaze.type == NORMAL) {
-            // select random cell b
-            cellB = mMaze.map[randomInt.nextInt(mMaze.sizeR)][randomInt.nextInt(mMaze.sizeC)];
-        }           
-        
-        // mark current cell as visited
-        visitedCells.add(cellB);
-        
+
         // add the random starting cell b to temporary cell repository Z
-        cellRepositoryZ.add(cellB);
-        
+        addCell(maze, cellB, visitedCells, cellRepositoryZ);
+
         // loop while cell repository Z is not empty
-        while (cellRepositoryZ.size() > 0) {
-        	
-        	// pick random cell b from temporary cell repository Z 
-    		cellB = cellRepositoryZ.get(randomInt.nextInt(cellRepositoryZ.size()));
-        	
-    		// pick recently added cell b from temporary cell repository Z
-    		//cellB = cellRepositoryZ.get(cellRepositoryZ.size()-1);
-    		
+        while (!cellRepositoryZ.isEmpty()) {
+
+        	// pick cell b from temporary cell repository Z
+        	int position = selectPosition(cellRepositoryZ.size(), randomInt);
+        	cellB = cellRepositoryZ.get(position);
+
     		// get unvisited neighbors of cell b
-    		ArrayList<Integer> unvisitedNeighbors = new ArrayList<>();
+    		int numNeighbors = 0;
             for (int i = 0; i < NUM_DIR; i++) {
-                Cell currentNeighbor = cellB.neigh[i];
-                if (isCellInMazeAndNotVisited(currentNeighbor)) {
-                    unvisitedNeighbors.add(i);
+                int currentNeighbor = maze.neighbour(cellB, i);
+                if (currentNeighbor >= 0 && !visitedCells.get(currentNeighbor)) {
+                    unvisitedNeighbors[numNeighbors++] = i;
                 }
             }
-            
-            if (unvisitedNeighbors.size() > 0) {
+
+            if (numNeighbors > 0) {
             	// choose random neighbor of cell b
-                randomNeighbor = unvisitedNeighbors.get(randomInt.nextInt(unvisitedNeighbors.size()));
+                int randomNeighbor = unvisitedNeighbors[randomInt.nextInt(numNeighbors)];
                 // carve a path to random neighbor
-                cellB.wall[randomNeighbor].present = false;
+                maze.carve(cellB, randomNeighbor);
                 // add random neighbor to temporary cell repository Z
-                cellRepositoryZ.add(cellB.neigh[randomNeighbor]);
-                // mark random neighbor as visited
-               	visitedCells.add(cellB.neigh[randomNeighbor]);
+                addCell(maze, maze.neighbour(cellB, randomNeighbor), visitedCells, cellRepositoryZ);
 
             } else {
                 // if cell b has no neighbor, remove it from temporary cell repository Z
-            	cellRepositoryZ.remove(cellB);
+            	cellRepositoryZ.removeAt(position);
             }
-            
+
         } // repeat until temporary cell repository is empty
-        
+
     } // end of generateMaze()
 
 
+    /**
+     * Position in Z of the next cell b, according to the strategy.
+     * @param size Number of cells in Z, oldest at position 0.
+     */
+    private int selectPosition(int size, Random randomInt) {
+    	switch (strategy) {
+    	case NEWEST:
+    		return size - 1;
+    	case OLDEST:
+    		return 0;
+    	case MIXED:
+    		if (randomInt.nextDouble() >= threshold)
+    			return size - 1;
+    		return randomInt.nextInt(size);
+    	default:
+    		return randomInt.nextInt(size);
+    	}
+    } // end of selectPosition()
+
 
-     /**
-     * Check whether the cell is in the maze and not yet visited.
+    /**
+     * Mark a cell as visited and add it to Z, followed by the other end of its tunnel if any.
      */
-    private boolean isCellInMazeAndNotVisited(Cell cell) {
-    	
-        if (mMaze.type == HEX) {
-            return cell != null && 
-            		!visitedCells.contains(cell) &&
-            		cell.r >= 0 && 
-            		cell.r < mMaze.sizeR && 
-            		cell.c >= (cell.r + 1) / 2 && 
-            		cell.c < mMaze.sizeC + (cell.r + 1) / 2;
-        } else {
-            return cell != null && 
-            		!visitedCells.contains(cell) &&
-            		cell.r >= 0 && 
-            		cell.r < mMaze.sizeR && 
-            		cell.c >= 0 && 
-            		cell.c < mMaze.sizeC;
-        }    	
-    } // end of isCellInMazeAndNotVisited
-  
+    private void addCell(Maze maze, int cell, BitSet visitedCells, IntQueue cellRepositoryZ) {
+    	visitedCells.set(cell);
+    	cellRepositoryZ.add(cell);
+    	int tunnel = maze.tunnel(cell);
+    	if (tunnel >= 0 && !visitedCells.get(tunnel)) {
+    		visitedCells.set(tunnel);
+    		cellRepositoryZ.add(tunnel);
+    	}
+    } // end of addCell()
 
 }
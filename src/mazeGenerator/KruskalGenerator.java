@@ -0,0 +1,278 @@
+package mazeGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import maze.Maze;
+import static maze.Maze.WEST;
+
+/**
+ * Implements the Randomized Kruskal's maze generating algorithm.
+ *
+ * The wall list and parent array are kept between calls in a Context per thread, grown to
+ * the largest maze generated so far, so the generator may generate on many threads at once.
+ * With more than one thread, the walls are joined on a pool of threads kept by the generator.
+ *
+ * @author rommel gaddi
+ */
+public class KruskalGenerator implements MazeGenerator {
+
+	// ranges of walls per thread, so threads running slower than others are helped out
+	private final static int RANGES_PER_THREAD = 4;
+
+	/**
+	 * Arrays of a generation, per thread.
+	 */
+	private static class Context {
+		int walls[] = new int[0];
+		// parent of a cell, or -(size of its set) for the representative of a set,
+		// with one thread, and with more
+		int parent[] = new int[0];
+		AtomicIntegerArray sharedParent = new AtomicIntegerArray(0);
+		boolean isKnockedDown[] = new boolean[0];
+	} // end of class Context
+
+	private int parallelism;
+	private ForkJoinPool pool = null;
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+	/**
+	 * default constructor, generates on the calling thread
+	 */
+	public KruskalGenerator() {
+		this(1);
+	} // end of KruskalGenerator()
+
+
+	/**
+	 * construct the generator
+	 * @param parallelism Number of threads joining walls, 1 to generate on the calling thread only.
+	 */
+	public KruskalGenerator(int parallelism) {
+		this.parallelism = Math.max(parallelism, 1);
+	} // end of KruskalGenerator()
+
+
+    /**
+     * Generate a perfect maze inside the input maze object using Randomized Kruskal's Algorithm:
+     *
+     * Input: Maze M, all walls built up, start and exit points marked.
+     * Output: Maze M, appropriate walls knocked down to form a perfect maze from start to exit.
+     *
+     * 1. Put every cell into a set of its own, and the two ends of every tunnel into one set.
+     *
+     * 2. List every wall between two cells of the maze, in random order.
+     *
+     * 3. For each wall in turn, if the cells on both sides are in different sets, knock the wall
+     *    down and join the two sets.
+     *
+     * Walls are encoded as cell index * 3 + direction, with direction EAST, NORTHEAST or NORTH,
+     * so the list is an int array. Sets are a union-find over an int parent array, with path
+     * halving, and the smaller set linked under the larger one, so the trees stay shallow.
+     *
+     * With more than one thread, the threads take ranges of the shuffled walls and join them at
+     * the same time. The union-find is lock-free: a link or a halving step is a compareAndSet on
+     * the parent array, and a thread whose set changed under it looks again, so threads never
+     * wait for each other. Links go from the smaller to the larger (size, index) of two roots,
+     * and sizes only grow, so links never close a loop. Every wall joining two sets is knocked
+     * down afterwards on the calling thread, as cells of a CompactNormalMaze share words.
+     *
+     * Every join is done once, so the maze is perfect, and its walls are still joined in a
+     * random order, but the order depends on the scheduling of the threads: the same seed
+     * only reproduces the same maze with one thread.
+     *
+     * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
+     */
+	@Override
+	public void generateMaze(final Maze maze, Random randomInt) {
+		if (3L * maze.indexSize() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Maze has too many cells to number its walls.");
+
+		Context context = contexts.get();
+		final int size = maze.indexSize();
+
+		// list every wall between two cells
+		int numWalls = 0;
+		for (int id = 0; id < maze.indexSize(); id++)
+			if (maze.isCell(id))
+				for (int i = 0; i < WEST; i++)
+					if (maze.neighbour(id, i) >= 0)
+						numWalls++;
+		if (context.walls.length < numWalls)
+			context.walls = new int[numWalls];
+		final int walls[] = context.walls;
+		numWalls = 0;
+		for (int id = 0; id < maze.indexSize(); id++)
+			if (maze.isCell(id))
+				for (int i = 0; i < WEST; i++)
+					if (maze.neighbour(id, i) >= 0)
+						walls[numWalls++] = id * 3 + i;
+
+		// shuffle the walls
+		for (int i = numWalls - 1; i > 0; i--) {
+			int j = randomInt.nextInt(i + 1);
+			int temp = walls[i];
+			walls[i] = walls[j];
+			walls[j] = temp;
+		}
+
+		// every cell in a set of its own, tunnels joined
+		if (parallelism == 1) {
+			if (context.parent.length < size)
+				context.parent = new int[size];
+			int parent[] = context.parent;
+			Arrays.fill(parent, 0, size, -1);
+			for (int id = 0; id < size; id++)
+				if (maze.isCell(id) && maze.tunnel(id) >= 0)
+					union(parent, id, maze.tunnel(id));
+
+			for (int i = 0; i < numWalls; i++) {
+				int cell = walls[i] / 3;
+				if (union(parent, cell, maze.neighbour(cell, walls[i] % 3)))
+					maze.carve(cell, walls[i] % 3);
+			}
+			return;
+		}
+
+		if (context.sharedParent.length() < size)
+			context.sharedParent = new AtomicIntegerArray(size);
+		final AtomicIntegerArray parent = context.sharedParent;
+		for (int id = 0; id < size; id++)
+			parent.lazySet(id, -1);
+		for (int id = 0; id < size; id++)
+			if (maze.isCell(id) && maze.tunnel(id) >= 0)
+				union(parent, id, maze.tunnel(id));
+
+		// join ranges of walls on the threads of the pool
+		if (context.isKnockedDown.length < numWalls)
+			context.isKnockedDown = new boolean[numWalls];
+		final boolean isKnockedDown[] = context.isKnockedDown;
+		final int step = Math.max(1, (numWalls + parallelism * RANGES_PER_THREAD - 1) / (parallelism * RANGES_PER_THREAD));
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int from = 0; from < numWalls; from += step) {
+			final int lo = from;
+			final int hi = Math.min(from + step, numWalls);
+			tasks.add(pool().submit(() -> {
+				for (int i = lo; i < hi; i++) {
+					int cell = walls[i] / 3;
+					isKnockedDown[i] = union(parent, cell, maze.neighbour(cell, walls[i] % 3));
+				}
+			}));
+		}
+		for (ForkJoinTask<?> task : tasks)
+			task.join();
+
+		for (int i = 0; i < numWalls; i++)
+			if (isKnockedDown[i])
+				maze.carve(walls[i] / 3, walls[i] % 3);
+	} // end of generateMaze()
+
+
+	/**
+	 * Pool of the threads joining walls, started by the first maze generated in parallel.
+	 * Its threads are daemons, and end when idle.
+	 */
+	private synchronized ForkJoinPool pool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
+		return pool;
+	} // end of pool()
+
+
+	/**
+	 * Representative of the set of a cell, halving the path on the way.
+	 */
+	private static int find(int parent[], int cell) {
+		int up;
+		while ((up = parent[cell]) >= 0) {
+			int grand = parent[up];
+			if (grand < 0)
+				return up;
+			parent[cell] = grand;
+			cell = grand;
+		}
+		return cell;
+	} // end of find()
+
+
+	/**
+	 * Join the sets of two cells, linking the smaller set under the larger one.
+	 * @return True if they were in different sets. Otherwise false.
+	 */
+	private static boolean union(int parent[], int a, int b) {
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		if (rootA == rootB)
+			return false;
+		if (parent[rootA] > parent[rootB]) {
+			int temp = rootA;
+			rootA = rootB;
+			rootB = temp;
+		}
+		// rootA holds the larger set
+		parent[rootA] += parent[rootB];
+		parent[rootB] = rootA;
+		return true;
+	} // end of union()
+
+
+	/**
+	 * Representative of the set of a cell as find(int[], int), on a parent array shared by
+	 * threads. A halving step lost to another thread is left out, the path is halved by that thread.
+	 */
+	private static int find(AtomicIntegerArray parent, int cell) {
+		int up = parent.get(cell);
+		while (up >= 0) {
+			int grand = parent.get(up);
+			if (grand < 0)
+				return up;
+			parent.compareAndSet(cell, up, grand);
+			cell = grand;
+			up = parent.get(cell);
+		}
+		return cell;
+	} // end of find()
+
+
+	/**
+	 * Join the sets of two cells as union(int[], int, int), on a parent array shared by
+	 * threads, without locks.
+	 * @return True if they were in different sets. Otherwise false.
+	 */
+	private static boolean union(AtomicIntegerArray parent, int a, int b) {
+		while (true) {
+			int rootA = find(parent, a);
+			int rootB = find(parent, b);
+			if (rootA == rootB)
+				return false;
+			int sizeA = -parent.get(rootA);
+			int sizeB = -parent.get(rootB);
+			// linked by another thread since, look again
+			if (sizeA <= 0 || sizeB <= 0)
+				continue;
+			// link the lower (size, index) under the higher one
+			if (sizeA > sizeB || (sizeA == sizeB && rootA > rootB)) {
+				int temp = rootA;
+				rootA = rootB;
+				rootB = temp;
+				temp = sizeA;
+				sizeA = sizeB;
+				sizeB = temp;
+			}
+			if (parent.compareAndSet(rootA, -sizeA, rootB)) {
+				// add to the size of the new root, unless it was linked meanwhile
+				int word = parent.get(rootB);
+				while (word < 0 && !parent.compareAndSet(rootB, word, word - sizeA))
+					word = parent.get(rootB);
+				return true;
+			}
+		}
+	} // end of union()
+
+} // end of class KruskalGenerator
@@ -1,9 +1,15 @@
 package mazeGenerator;
 
+import java.util.Random;
+
 import maze.Maze;
 
 /**
  * Interface of a maze generator.
+ *
+ * A generator may be reused for any number of mazes, of any type and size, and may
+ * generate on many threads at once, each with its own maze and Random. Scratch state
+ * is kept per thread, and grown to the largest maze generated on the thread.
  * 
  * @author Youhan Xia
  * @author Jeffrey Chan
@@ -13,7 +19,19 @@ public interface MazeGenerator
 {
 	/**
 	 * Function that generate a perfect maze from an all-wall initialized maze.
+	 * The maze is different on every call.
+	 * @param maze The reference of Maze object to generate. 
+	 */
+	public default void generateMaze(Maze maze) {
+		generateMaze(maze, new Random(System.currentTimeMillis()));
+	} // end of generateMaze()
+
+	/**
+	 * Function that generate a perfect maze from an all-wall initialized maze.
+	 * Every random choice is drawn from randomInt, so the same seed and type of
+	 * random number generator (see maze.FastRandom) reproduce the same maze.
 	 * @param maze The reference of Maze object to generate. 
+	 * @param randomInt Source of random numbers.
 	 */
-	public void generateMaze(Maze maze);
+	public void generateMaze(Maze maze, Random randomInt);
 } // end of interface mazeGenerator
\ No newline at end of file
@@ -1,9 +1,9 @@
 package mazeGenerator;
 
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
-import maze.Cell;
+import maze.IntStack;
 import maze.Maze;
 import static maze.Maze.HEX;
 import static maze.Maze.NORMAL;
@@ -12,11 +12,28 @@ import static maze.Maze.NUM_DIR;
 /**
  * Implements the Modified Prim's maze generating algorithm.
  *
+ * The cell states and frontier are kept between calls in a Context per thread, grown to the
+ * largest maze generated so far, so the generator may generate on many threads at once.
+ *
  * @author rommel gaddi
  */
 public class ModifiedPrimsGenerator implements MazeGenerator {
 
-	private Maze mMaze;
+	// cell states
+	private final static byte OUTSIDE = 0;
+	private final static byte IN_FRONTIER = 1;
+	private final static byte IN_MAZE = 2;
+
+	/**
+	 * Arrays of a generation, per thread.
+	 */
+	private static class Context {
+		byte state[] = new byte[0];
+		IntStack frontierCells = new IntStack();
+		int adjacentDirs[] = new int[NUM_DIR];
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
 
     /**
      * Generate a perfect maze inside the input maze object using Modified Prim's Algorithm:
@@ -35,115 +52,81 @@ public class ModifiedPrimsGenerator implements MazeGenerator {
      * 4. Repeat step 2 until Z includes every cell in the maze. At the end of the process, we would have
 	 *	  generated a perfect maze.
      *
+     * Cells are handled by index. Membership of Z and F is a state flag per cell, and F is an
+     * unordered array where the randomly selected cell is replaced by the last one, so every
+     * step is O(1) and the whole maze is generated in linear time.
+     *
      * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
      */
 	@Override
-	public void generateMaze(Maze maze) {
-		Random randomInt = new Random(System.currentTimeMillis());
-		mMaze = maze;
-		int mazeSize = 0;
-
-		ArrayList<Cell> adjacentCells = new ArrayList<>();
-		ArrayList<Cell> cellRepositoryZ = new ArrayList<>();
-		ArrayList<Cell> frontierCells = new ArrayList<>();
-		Cell cellB = null;
-		Cell cellC = null;
-		
+	public void generateMaze(Maze maze, Random randomInt) {
+		int cellC;
+
         // Accepts only Normal or Hex Maze Type
-        if ((mMaze.type != NORMAL) && (mMaze.type != HEX) ) { 
+        if ((maze.type != NORMAL) && (maze.type != HEX) ) {
         	System.out.println("Error! This generator only supports Normal and Hex maze");
         	return;
-        }		
-		
-		if (mMaze.type == HEX) {
-			ArrayList<Cell> mazeCells = new ArrayList<>();
-			for (int i = 0; i < mMaze.sizeR; i++) {
-				for (int j = (i + 1) / 2; j < mMaze.sizeC + (i + 1) / 2; j++) {
-					if (!isCellInMaze(mMaze.map[i][j]))
-						continue;
-					mazeCells.add(mMaze.map[i][j]);
-				}
-			}
-			// select random cell
-			cellC = mazeCells.get(randomInt.nextInt(mazeCells.size()));
-			// get the size of the maze
-			mazeSize = mazeCells.size();
-
-		} else if (mMaze.type == NORMAL) {
-			// select random cell
-			cellC = mMaze.map[randomInt.nextInt(mMaze.sizeR)][randomInt.nextInt(mMaze.sizeC)];
-			// get the size of the maze
-			mazeSize = maze.sizeR * maze.sizeC;
+        }
+
+		Context context = contexts.get();
+		if (context.state.length < maze.indexSize())
+			context.state = new byte[maze.indexSize()];
+		else
+			Arrays.fill(context.state, 0, maze.indexSize(), OUTSIDE);
+		context.frontierCells.clear();
+		byte state[] = context.state;
+		IntStack frontierCells = context.frontierCells;
+		int adjacentDirs[] = context.adjacentDirs;
+
+		// select random cell
+		if (maze.type == HEX) {
+			int k = randomInt.nextInt(maze.sizeR * maze.sizeC);
+			int r = k / maze.sizeC;
+			cellC = maze.index(r, k % maze.sizeC + (r + 1) / 2);
+		} else {
+			int r = randomInt.nextInt(maze.sizeR);
+			cellC = maze.index(r, randomInt.nextInt(maze.sizeC));
 		}
 
 		// Add the current cell to Z
-		cellRepositoryZ.add(cellC);
+		state[cellC] = IN_MAZE;
 
-		// Loop until Z includes every cell in the maze
-		while (cellRepositoryZ.size() < mazeSize) {
+		while (true) {
 
-			// Put all neighboring cells of the current cell into the frontier set F
+			// Put all neighboring cells of the current cell, not in F or Z, into the frontier set F
 			for (int i = 0; i < NUM_DIR; i++) {
-				Cell neighborCell = cellC.neigh[i];
-				if ((isCellInMaze(neighborCell)) 
-						&& (!frontierCells.contains(neighborCell)) 
-						&& (!cellRepositoryZ.contains(neighborCell))) {
-					frontierCells.add(neighborCell);
+				int neighborCell = maze.neighbour(cellC, i);
+				if (neighborCell >= 0 && state[neighborCell] == OUTSIDE) {
+					state[neighborCell] = IN_FRONTIER;
+					frontierCells.push(neighborCell);
 				}
-			}      
-
-			// Randomly select a cell c from frontier set F 
-			cellC = frontierCells.get(randomInt.nextInt(frontierCells.size()));
-			// Remove cell c from frontier set F
-			frontierCells.remove(cellC);
+			}
 
-			// Get all cell in Z that are adjacent to c
-			adjacentCells.clear();
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell adjacentNeighborCell = cellC.neigh[i];
-				if ((isCellInMaze(adjacentNeighborCell)) 
-						&& (cellRepositoryZ.contains(adjacentNeighborCell))) {
-					adjacentCells.add(adjacentNeighborCell);
-				}
-			}             
+			// Z includes every cell in the maze once F is empty
+			if (frontierCells.isEmpty())
+				break;
 
-			// Randomly select a cell b that is in Z and adjacent to the cell c
-			cellB = adjacentCells.get(randomInt.nextInt(adjacentCells.size()));
+			// Randomly select a cell c from frontier set F and remove it from F
+			cellC = frontierCells.removeAt(randomInt.nextInt(frontierCells.size()));
 
-			// Carve a path between cell c and cell b
+			// Get all directions from c to cells in Z
+			int numAdjacent = 0;
 			for (int i = 0; i < NUM_DIR; i++) {
-				Cell neighborCell = cellB.neigh[i];
-				if ((isCellInMaze(neighborCell)) && (neighborCell == cellC)) {
-					cellB.wall[i].present = false;
+				int adjacentNeighborCell = maze.neighbour(cellC, i);
+				if (adjacentNeighborCell >= 0 && state[adjacentNeighborCell] == IN_MAZE) {
+					adjacentDirs[numAdjacent++] = i;
 				}
 			}
 
-			// Add cell c to set Z
-			cellRepositoryZ.add(cellC);
+			// Randomly select a cell b that is in Z and adjacent to the cell c,
+			// and carve a path between cell c and cell b
+			maze.carve(cellC, adjacentDirs[randomInt.nextInt(numAdjacent)]);
 
+			// Add cell c to set Z
+			state[cellC] = IN_MAZE;
 		}
 	} // end of generateMaze()
 
 
-	/**
-	 * Check whether the cell is in the maze.
-	 */
-	private boolean isCellInMaze(Cell cell) {
-
-		if (mMaze.type == HEX) {
-			return cell != null && 
-					cell.r >= 0 && 
-					cell.r < mMaze.sizeR && 
-					cell.c >= (cell.r + 1) / 2 && 
-					cell.c < mMaze.sizeC + (cell.r + 1) / 2;
-		} else {
-			return cell != null && 
-					cell.r >= 0 && 
-					cell.r < mMaze.sizeR && 
-					cell.c >= 0 && 
-					cell.c < mMaze.sizeC;
-		}    	
-	} // end of isCellInMaze()   
-
-
 } // end of class ModifiedPrimsGenerator
@@ -0,0 +1,308 @@
+package mazeGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import maze.FastRandom;
+import maze.IntStack;
+import maze.Maze;
+import static maze.Maze.HEX;
+import static maze.Maze.NORMAL;
+import static maze.Maze.NUM_DIR;
+import static maze.Maze.NORTHEAST;
+import static maze.Maze.SOUTHWEST;
+import static maze.Maze.deltaC;
+import static maze.Maze.deltaR;
+
+/**
+ * Generates a maze in parallel by splitting it into square tiles, on a pool of threads
+ * kept by the generator.
+ *
+ * @author rommel gaddi
+ */
+public class ParallelTileGenerator implements MazeGenerator {
+
+	private int tileSize;
+	private int parallelism;
+	private ForkJoinPool pool = null;
+
+
+	/**
+	 * default constructor, tiles of 256 x 256 cells on every available processor
+	 */
+	public ParallelTileGenerator() {
+		this(256, Runtime.getRuntime().availableProcessors());
+	} // end of ParallelTileGenerator()
+
+
+	/**
+	 * construct the generator
+	 * @param tileSize Number of rows and columns of a tile, at least 32.
+	 * @param parallelism Number of threads generating tiles.
+	 */
+	public ParallelTileGenerator(int tileSize, int parallelism) {
+		this.tileSize = Math.max(tileSize, 32);
+		this.parallelism = Math.max(parallelism, 1);
+	} // end of ParallelTileGenerator()
+
+
+    /**
+     * Generate a perfect maze inside the input maze object by tiles:
+     *
+     * Input: Maze M, all walls built up, start and exit points marked.
+     * Output: Maze M, appropriate walls knocked down to form a perfect maze from start to exit.
+     *
+     * 1. Split the maze into tiles of tileSize rows and tileSize columns (columns counted from the
+     *    start of each row, also in a hex maze). A last column of tiles narrower than 32 cells is
+     *    merged into the column before it.
+     *
+     * 2. Generate a perfect maze inside every tile with the recursive backtracker, tiles in parallel.
+     *
+     * 3. Build a random spanning tree of the tiles, where tiles next to each other are adjacent.
+     *
+     * 4. For every edge of the tree, knock down one random wall between the two tiles.
+     *
+     * Each tile is a tree and the tiles are joined as a tree, so the maze is perfect.
+     *
+     * A tile only knocks down walls between its own cells. Neighboring tiles may share words of a
+     * CompactNormalMaze bitset, of 32 cells each. Every tile holds at least 32 cells per row (see
+     * numTileCols()), so no word spans three tiles, and tiles are generated in phases where no two
+     * running tiles share a word, see phaseOf().
+     *
+     * Every tile gets its own seed drawn from randomInt, so the maze does not depend on the
+     * scheduling of the threads.
+     *
+     * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
+     */
+	@Override
+	public void generateMaze(final Maze maze, Random randomInt) {
+        // Accepts only Normal or Hex Maze Type
+        if ((maze.type != NORMAL) && (maze.type != HEX) ) {
+        	System.out.println("Error! This generator only supports Normal and Hex maze");
+        	return;
+        }
+
+		final int tileR = (maze.sizeR + tileSize - 1) / tileSize;
+		final int tileC = numTileCols(maze);
+
+		final long seeds[] = new long[tileR * tileC];
+		for (int i = 0; i < seeds.length; i++)
+			seeds[i] = randomInt.nextLong();
+
+		// generate tiles, tile columns by phase
+		for (int phase = 0; phase < 3; phase++) {
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int tc = 0; tc < tileC; tc++) {
+				for (int tr = 0; tr < tileR; tr++) {
+					if (phaseOf(tr, tc, tileC) != phase)
+						continue;
+					final int r = tr;
+					final int c = tc;
+					tasks.add(pool().submit(() -> generateTile(maze, r, c, tileC, new FastRandom(seeds[r * tileC + c]))));
+				}
+			}
+			for (ForkJoinTask<?> task : tasks)
+				task.join();
+		}
+
+		// join the tiles along a random spanning tree of the tiles,
+		// found by a recursive backtracker on the tile grid
+		boolean visited[] = new boolean[tileR * tileC];
+		IntStack previousTile = new IntStack();
+		int dirs[] = new int[4];
+		int currentTile = randomInt.nextInt(tileR * tileC);
+		visited[currentTile] = true;
+
+		while (true) {
+			int tr = currentTile / tileC;
+			int tc = currentTile % tileC;
+			int numNeighbors = 0;
+			if (tc + 1 < tileC && !visited[currentTile + 1]) dirs[numNeighbors++] = currentTile + 1;
+			if (tr + 1 < tileR && !visited[currentTile + tileC]) dirs[numNeighbors++] = currentTile + tileC;
+			if (tc > 0 && !visited[currentTile - 1]) dirs[numNeighbors++] = currentTile - 1;
+			if (tr > 0 && !visited[currentTile - tileC]) dirs[numNeighbors++] = currentTile - tileC;
+
+			if (numNeighbors > 0) {
+				int nextTile = dirs[randomInt.nextInt(numNeighbors)];
+				stitch(maze, currentTile, nextTile, tileC, randomInt);
+				previousTile.push(currentTile);
+				currentTile = nextTile;
+				visited[currentTile] = true;
+			} else if (!previousTile.isEmpty()) {
+				currentTile = previousTile.pop();
+			} else {
+				break;
+			}
+		}
+	} // end of generateMaze()
+
+
+	/**
+	 * Pool of the threads generating tiles, started by the first maze generated.
+	 * Its threads are daemons, and end when idle.
+	 */
+	private synchronized ForkJoinPool pool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
+		return pool;
+	} // end of pool()
+
+
+	/**
+	 * Number of columns of tiles: tileSize columns each, the last one taking the columns left
+	 * over if they are fewer than 32, so the row of every tile fills at least one word of a
+	 * CompactNormalMaze bitset, unless the maze is narrower than that.
+	 */
+	private int numTileCols(Maze maze) {
+		int tileC = maze.sizeC / tileSize;
+		if (tileC == 0 || maze.sizeC % tileSize >= 32)
+			tileC++;
+		return tileC;
+	} // end of numTileCols()
+
+
+	/**
+	 * First column past a column of tiles.
+	 */
+	private int colEnd(Maze maze, int tc, int tileC) {
+		return tc == tileC - 1 ? maze.sizeC : (tc + 1) * tileSize;
+	} // end of colEnd()
+
+
+	/**
+	 * Tile of a cell, by row and column counted from the start of the row.
+	 */
+	private int tileOf(int r, int c, int tileC) {
+		return (r / tileSize) * tileC + Math.min(c / tileSize, tileC - 1);
+	} // end of tileOf()
+
+
+	/**
+	 * Phase in which a tile is generated: even and odd columns in turn, and the
+	 * last column on its own if there is an odd number of columns, as the end of a
+	 * row shares words with the start of the next row. With a single column, that
+	 * happens between tile rows, so even and odd rows take turns instead.
+	 */
+	private static int phaseOf(int tr, int tc, int tileC) {
+		if (tileC == 1)
+			return tr % 2;
+		if (tileC % 2 == 1 && tc == tileC - 1)
+			return 2;
+		return tc % 2;
+	} // end of phaseOf()
+
+
+	/**
+	 * Shift from the column counted from the start of a row to map[][] column.
+	 */
+	private static int shift(Maze maze, int r) {
+		return maze.type == HEX ? (r + 1) / 2 : 0;
+	} // end of shift()
+
+
+	/**
+	 * Generate a perfect maze inside a tile with the recursive backtracker.
+	 * Cells are numbered inside the tile, row by row.
+	 */
+	private void generateTile(Maze maze, int tr, int tc, int tileC, Random randomInt) {
+		int r0 = tr * tileSize;
+		int c0 = tc * tileSize;
+		int r1 = Math.min(r0 + tileSize, maze.sizeR);
+		int c1 = colEnd(maze, tc, tileC);
+		int width = c1 - c0;
+
+		boolean visited[] = new boolean[width * (r1 - r0)];
+		IntStack previousCell = new IntStack();
+		int unvisitedNeighbors[] = new int[NUM_DIR];
+		int unvisitedLocal[] = new int[NUM_DIR];
+		int currentLocal = randomInt.nextInt(visited.length);
+		visited[currentLocal] = true;
+
+		while (true) {
+			int r = r0 + currentLocal / width;
+			int c = c0 + currentLocal % width;
+			int currentCell = maze.index(r, c + shift(maze, r));
+
+			// get all unvisited neighbors inside the tile, from deltaR[]/deltaC[]
+			int numNeighbors = 0;
+			for (int i = 0; i < NUM_DIR; i++) {
+				if (maze.type != HEX && (i == NORTHEAST || i == SOUTHWEST))
+					continue;
+				int nr = r + deltaR[i];
+				if (nr < r0 || nr >= r1)
+					continue;
+				int nc = c + shift(maze, r) + deltaC[i] - shift(maze, nr);
+				if (nc < c0 || nc >= c1)
+					continue;
+				int local = (nr - r0) * width + nc - c0;
+				if (!visited[local]) {
+					unvisitedNeighbors[numNeighbors] = i;
+					unvisitedLocal[numNeighbors++] = local;
+				}
+			}
+
+			if (numNeighbors > 0) {
+				int k = randomInt.nextInt(numNeighbors);
+				maze.carve(currentCell, unvisitedNeighbors[k]);
+				previousCell.push(currentLocal);
+				currentLocal = unvisitedLocal[k];
+				visited[currentLocal] = true;
+			} else if (!previousCell.isEmpty()) {
+				currentLocal = previousCell.pop();
+			} else {
+				break;
+			}
+		}
+	} // end of generateTile()
+
+
+	/**
+	 * Knock down one random wall between two adjacent tiles.
+	 */
+	private void stitch(Maze maze, int tileA, int tileB, int tileC, Random randomInt) {
+		int tr = tileA / tileC;
+		int tc = tileA % tileC;
+		int r0 = tr * tileSize;
+		int c0 = tc * tileSize;
+		int r1 = Math.min(r0 + tileSize, maze.sizeR);
+		int c1 = colEnd(maze, tc, tileC);
+
+		// cells of tile A on the side facing tile B, by the rows and columns of the tiles
+		int fromR = r0, toR = r1, fromC = c0, toC = c1;
+		int br = tileB / tileC;
+		int bc = tileB % tileC;
+		if (br == tr && bc == tc + 1) fromC = c1 - 1;
+		else if (br == tr && bc == tc - 1) toC = c0 + 1;
+		else if (br == tr + 1) fromR = r1 - 1;
+		else toR = r0 + 1;
+
+		// pick one of the walls between the tiles, each with the same probability
+		int numWalls = 0;
+		int wallCell = -1;
+		int wallDir = -1;
+		for (int r = fromR; r < toR; r++) {
+			for (int c = fromC; c < toC; c++) {
+				int cell = maze.index(r, c + shift(maze, r));
+				for (int i = 0; i < NUM_DIR; i++) {
+					int next = maze.neighbour(cell, i);
+					if (next < 0)
+						continue;
+					int nr = maze.row(next);
+					int nc = maze.col(next) - shift(maze, nr);
+					if (tileOf(nr, nc, tileC) != tileB)
+						continue;
+					numWalls++;
+					if (randomInt.nextInt(numWalls) == 0) {
+						wallCell = cell;
+						wallDir = i;
+					}
+				}
+			}
+		}
+		maze.carve(wallCell, wallDir);
+	} // end of stitch()
+
+} // end of class ParallelTileGenerator
@@ -1,10 +1,12 @@
 package mazeGenerator;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Stack;
 import maze.Cell;
+import maze.IntStack;
 import maze.Maze;
 import static maze.Maze.HEX;
 import static maze.Maze.NORMAL;
@@ -14,12 +16,42 @@ import static maze.Maze.NUM_DIR;
 /**
  * Implements the Recursive Backtracker maze generating algorithm.
  *
+ * The bitsets and stack of generateMazeFast() are kept between calls in a Context per
+ * thread, so the generator may generate on many threads at once.
+ *
  * @author rommel gaddi
  */
 public class RecursiveBacktrackerGenerator implements MazeGenerator {
 
-	private Maze mMaze;
-	private HashSet<Cell> visitedCells;
+	/**
+	 * Scratch of generateMazeFast(), per thread.
+	 */
+	private static class Context {
+		BitSet visited = new BitSet();
+		BitSet tunnelCells = new BitSet();
+		IntStack previousCell = new IntStack();
+		int unvisitedNeighbors[] = new int[NUM_DIR + 1];
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+	private boolean fast;
+
+
+	/**
+	 * default constructor, generates with Cell objects
+	 */
+	public RecursiveBacktrackerGenerator() {
+		this(false);
+	} // end of RecursiveBacktrackerGenerator()
+
+
+	/**
+	 * construct the generator
+	 * @param fast True to generate on cell indices with primitive arrays, see generateMazeFast().
+	 */
+	public RecursiveBacktrackerGenerator(boolean fast) {
+		this.fast = fast;
+	} // end of RecursiveBacktrackerGenerator()
 
 
     /**
@@ -40,26 +72,32 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator {
      * 4. When there are no more unvisited neighbors for all cells, then every cell would have been visited
 	 *	  and we have generated a perfect maze.
      *
+     * Mazes without map[][] are always generated by generateMazeFast().
+     *
      * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
      */
 	@Override
-	public void generateMaze(Maze maze) {
-		mMaze = maze;
-		visitedCells = new HashSet<>();
+	public void generateMaze(Maze maze, Random randomInt) {
+		if (fast || maze.map == null) {
+			generateMazeFast(maze, randomInt);
+			return;
+		}
+
+		HashSet<Cell> visitedCells = new HashSet<>();
 		ArrayList<Cell> mazeCells = new ArrayList<>();
 		ArrayList<Cell> tunnelCells = new ArrayList<>();
 		Stack<Cell> previousCell = new Stack<>();
 		Cell currentCell = null;
 		int randomNeighbor = 0;
 		boolean isThereUnvisitedCells = true;
-		Random randomInt = new Random(System.currentTimeMillis());
 
 
 		// Start of Tunnel
 		if (maze.type == TUNNEL) { 
 
 			// select a random starting cell
-			currentCell = mMaze.map[randomInt.nextInt(mMaze.sizeR)][randomInt.nextInt(mMaze.sizeC)];
+			currentCell = maze.map[randomInt.nextInt(maze.sizeR)][randomInt.nextInt(maze.sizeC)];
 			// mark starting cell as visited
 			visitedCells.add(currentCell);            
 
@@ -70,7 +108,7 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator {
 				ArrayList<Integer> unvisitedNeighbors = new ArrayList<>();
 				for (int i = 0; i < NUM_DIR; i++) {
 					Cell currentNeighbor = currentCell.neigh[i];
-					if (isCellInMazeAndNotVisited(currentNeighbor) && !tunnelCells.contains(currentNeighbor)) {
+					if (isCellInMazeAndNotVisited(maze, visitedCells, currentNeighbor) && !tunnelCells.contains(currentNeighbor)) {
 						unvisitedNeighbors.add(i);
 					}
 				}
@@ -120,15 +158,15 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator {
 		// Start of Normal and Hex
 		else if (maze.type == NORMAL) {
 			// select a random starting cell
-			currentCell = mMaze.map[randomInt.nextInt(mMaze.sizeR)][randomInt.nextInt(mMaze.sizeC)];
+			currentCell = maze.map[randomInt.nextInt(maze.sizeR)][randomInt.nextInt(maze.sizeC)];
 		} else {
 			// get size of the maze
 			mazeCells = new ArrayList<>();
 			for (int i = 0; i < maze.sizeR; i++) {
 				for (int j = (i + 1) / 2; j < maze.sizeC + (i + 1) / 2; j++) {
-					if (!isCellInMazeAndNotVisited(mMaze.map[i][j]))
+					if (!isCellInMazeAndNotVisited(maze, visitedCells, maze.map[i][j]))
 						continue;
-					mazeCells.add(mMaze.map[i][j]);
+					mazeCells.add(maze.map[i][j]);
 				}
 			}
 			// select a random starting cell
@@ -145,7 +183,7 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator {
 			ArrayList<Integer> unvisitedNeighbors = new ArrayList<>();
 			for (int i = 0; i < NUM_DIR; i++) {
 				Cell currentNeighbor = currentCell.neigh[i];
-				if (isCellInMazeAndNotVisited(currentNeighbor)) {
+				if (isCellInMazeAndNotVisited(maze, visitedCells, currentNeighbor)) {
 					unvisitedNeighbors.add(i);
 				}
 			}
@@ -175,25 +213,99 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator {
 	} // end of generateMaze()
 
 
+	/**
+	 * Same algorithm as generateMaze(), working on cell indices:
+	 * visited cells are kept in a bitset, the backtracking path in an int stack
+	 * and candidate directions in one small array, so no object is created per step.
+	 * Random numbers are drawn in the same order as the Cell version,
+	 * so both produce the same maze from the same seed.
+	 * @param maze The reference of Maze object to generate
+	 * @param randomInt Source of random numbers.
+	 */
+	private void generateMazeFast(Maze maze, Random randomInt) {
+		Context context = contexts.get();
+		BitSet visited = context.visited;
+		visited.clear();
+		// cells at the other end of a tunnel are left to be reached through the tunnel
+		BitSet tunnelCells = maze.type == TUNNEL ? context.tunnelCells : null;
+		if (tunnelCells != null)
+			tunnelCells.clear();
+		IntStack previousCell = context.previousCell;
+		previousCell.clear();
+		// direction NUM_DIR stands for the tunnel
+		int unvisitedNeighbors[] = context.unvisitedNeighbors;
+		int currentCell;
+
+		// select a random starting cell
+		if (maze.type == HEX) {
+			int k = randomInt.nextInt(maze.sizeR * maze.sizeC);
+			int r = k / maze.sizeC;
+			currentCell = maze.index(r, k % maze.sizeC + (r + 1) / 2);
+		} else {
+			int r = randomInt.nextInt(maze.sizeR);
+			currentCell = maze.index(r, randomInt.nextInt(maze.sizeC));
+		}
+		visited.set(currentCell);
+
+		// loop until all cells are visited
+		while (true) {
+
+			// get all unvisited neighbors
+			int numNeighbors = 0;
+			for (int i = 0; i < NUM_DIR; i++) {
+				int next = maze.neighbour(currentCell, i);
+				if (next >= 0 && !visited.get(next) && (tunnelCells == null || !tunnelCells.get(next)))
+					unvisitedNeighbors[numNeighbors++] = i;
+			}
+			int tunnel = tunnelCells == null ? -1 : maze.tunnel(currentCell);
+			if (tunnel >= 0 && !visited.get(tunnel))
+				unvisitedNeighbors[numNeighbors++] = NUM_DIR;
+
+			if (numNeighbors > 0) {
+				// select cell from random neighbors
+				int dir = unvisitedNeighbors[randomInt.nextInt(numNeighbors)];
+				previousCell.push(currentCell);
+				if (dir == NUM_DIR) {
+					// go through the tunnel
+					currentCell = tunnel;
+				} else {
+					if (tunnel >= 0)
+						tunnelCells.set(tunnel);
+					// carve a path to the selected random neighbor
+					maze.carve(currentCell, dir);
+					currentCell = maze.neighbour(currentCell, dir);
+				}
+				visited.set(currentCell);
+			} else if (!previousCell.isEmpty()) {
+				// back track one cell
+				currentCell = previousCell.pop();
+			} else {
+				// all cells have been visited
+				break;
+			}
+		}
+	} // end of generateMazeFast()
+
+
 	/**
 	 * Check whether the cell is in the maze and not yet visited.
 	 */
-	private boolean isCellInMazeAndNotVisited(Cell cell) {
+	private boolean isCellInMazeAndNotVisited(Maze maze, HashSet<Cell> visitedCells, Cell cell) {
 
-		if (mMaze.type == HEX) {
+		if (maze.type == HEX) {
 			return cell != null && 
 					!visitedCells.contains(cell) &&
 					cell.r >= 0 && 
-					cell.r < mMaze.sizeR && 
+					cell.r < maze.sizeR && 
 					cell.c >= (cell.r + 1) / 2 && 
-					cell.c < mMaze.sizeC + (cell.r + 1) / 2;
+					cell.c < maze.sizeC + (cell.r + 1) / 2;
 		} else {
 			return cell != null && 
 					!visitedCells.contains(cell) &&
 					cell.r >= 0 && 
-					cell.r < mMaze.sizeR && 
+					cell.r < maze.sizeR && 
 					cell.c >= 0 && 
-					cell.c < mMaze.sizeC;
+					cell.c < maze.sizeC;
 		}    	
 	} // end of isCellInMazeAndNotVisited
 
@@ -0,0 +1,71 @@
+package mazeGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * RowSink writing the walls of a normal maze to a stream as they are generated.
+ *
+ * The walls are written in the layout of CompactNormalMaze.walls: cells row by
+ * row from row 0, two bits per cell, the EAST wall then the NORTH wall, a set bit
+ * for a wall that is present. Bits are packed from the lowest bit of each byte,
+ * so the file read as little-endian longs is the walls[] bitset.
+ *
+ * @author rommel gaddi
+ */
+public class WallBitWriter implements EllerGenerator.RowSink, Closeable {
+
+	private OutputStream out;
+	private int bits;
+	private int numBits;
+
+
+	/**
+	 * construct the writer
+	 * @param out Stream to write to, closed by close().
+	 */
+	public WallBitWriter(OutputStream out) {
+		this.out = out;
+	} // end of WallBitWriter()
+
+
+	/**
+	 * construct the writer
+	 * @param fileName File to write to, created or overwritten.
+	 */
+	public WallBitWriter(String fileName) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+	} // end of WallBitWriter()
+
+
+	@Override
+	public void row(long r, boolean eastOpen[], boolean northOpen[]) throws IOException {
+		for (int c = 0; c < eastOpen.length; c++) {
+			bits |= (eastOpen[c] ? 0 : 1) << numBits;
+			bits |= (northOpen[c] ? 0 : 2) << numBits;
+			numBits += 2;
+			if (numBits == 8) {
+				out.write(bits);
+				bits = 0;
+				numBits = 0;
+			}
+		}
+	} // end of row()
+
+
+	/**
+	 * Write the last partial byte, padded with set bits, and close the stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (numBits > 0) {
+			out.write(bits | (0xFF << numBits) & 0xFF);
+			numBits = 0;
+		}
+		out.close();
+	} // end of close()
+
+} // end of class WallBitWriter
@@ -0,0 +1,187 @@
+package mazeGenerator;
+
+import java.util.BitSet;
+import java.util.Random;
+import maze.Maze;
+import static maze.Maze.NUM_DIR;
+
+/**
+ * Implements Wilson's maze generating algorithm, which picks every perfect maze
+ * with the same probability (a uniform spanning tree).
+ *
+ * The cells in the maze and the steps of the walk are kept between calls in a Context per
+ * thread, grown to the largest maze generated so far, so the generator may generate on many
+ * threads at once.
+ *
+ * @author rommel gaddi
+ */
+public class WilsonGenerator implements MazeGenerator {
+
+	/**
+	 * State of a generation, per thread.
+	 */
+	protected static class Context {
+		// cells in the maze so far
+		BitSet inMaze = new BitSet();
+		// step taken out of each cell by the current random walk, see randomStep()
+		byte next[] = new byte[0];
+		// number of cells in the maze so far
+		int numInMaze;
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+    /**
+     * Generate a perfect maze inside the input maze object using Wilson's Algorithm:
+     *
+     * Input: Maze M, all walls built up, start and exit points marked.
+     * Output: Maze M, appropriate walls knocked down to form a perfect maze from start to exit.
+     *
+     * 1. Add a random cell to the maze.
+     *
+     * 2. From a cell not in the maze, walk randomly until a cell in the maze is reached, remembering
+     *    for every cell the step last taken out of it. A cell entered again overwrites its step,
+     *    which erases the loop.
+     *
+     * 3. Follow the remembered steps from the start of the walk, knocking down the walls and adding
+     *    the cells to the maze.
+     *
+     * 4. Repeat step 2 until every cell is in the maze.
+     *
+     * Steps are kept in a byte per cell, so a walk creates no objects.
+     *
+     * In a tunnel maze, the two ends of a tunnel are treated as one cell whose neighbors are the
+     * neighbors of both ends, so every tunnel is part of the maze and the maze is uniform among
+     * the perfect mazes using every tunnel.
+     *
+     * @param maze The reference of Maze object to generate
+     * @param randomInt Source of random numbers
+     */
+	@Override
+	public void generateMaze(Maze maze, Random randomInt) {
+		Context context = start(maze);
+		addRandomCell(context, maze, randomInt);
+		walkToMaze(context, maze, randomInt);
+	} // end of generateMaze()
+
+
+	/**
+	 * Set up an empty maze.
+	 * @return The context of the calling thread, emptied.
+	 */
+	protected Context start(Maze maze) {
+		Context context = contexts.get();
+		context.inMaze.clear();
+		// steps are written by a walk before they are read, so are not cleared
+		if (context.next.length < maze.indexSize())
+			context.next = new byte[maze.indexSize()];
+		context.numInMaze = 0;
+		return context;
+	} // end of start()
+
+
+	/**
+	 * Add a random cell to the maze.
+	 * @return The cell added.
+	 */
+	protected int addRandomCell(Context context, Maze maze, Random randomInt) {
+		int cell;
+		do {
+			cell = randomInt.nextInt(maze.indexSize());
+		} while (!maze.isCell(cell));
+		cell = rep(maze, cell);
+		add(context, maze, cell);
+		return cell;
+	} // end of addRandomCell()
+
+
+	/**
+	 * Add every cell not yet in the maze with loop-erased random walks (steps 2-4).
+	 */
+	protected void walkToMaze(Context context, Maze maze, Random randomInt) {
+		BitSet inMaze = context.inMaze;
+		byte next[] = context.next;
+		for (int id = 0; id < maze.indexSize(); id++) {
+			if (!maze.isCell(id) || inMaze.get(id))
+				continue;
+
+			// random walk until the maze is reached
+			int cell = rep(maze, id);
+			while (!inMaze.get(cell)) {
+				int step = randomStep(maze, cell, randomInt);
+				next[cell] = (byte) step;
+				cell = stepTo(maze, cell, step);
+			}
+
+			// add the loop-erased walk to the maze
+			cell = rep(maze, id);
+			while (!inMaze.get(cell)) {
+				add(context, maze, cell);
+				int step = next[cell];
+				carve(maze, cell, step);
+				cell = stepTo(maze, cell, step);
+			}
+		}
+	} // end of walkToMaze()
+
+
+	/**
+	 * The cell standing for both ends of a tunnel is the end with the lower index.
+	 */
+	protected static int rep(Maze maze, int cell) {
+		int tunnel = maze.tunnel(cell);
+		return tunnel >= 0 && tunnel < cell ? tunnel : cell;
+	} // end of rep()
+
+
+	/**
+	 * Add a cell, and the other end of its tunnel, to the maze.
+	 */
+	protected static void add(Context context, Maze maze, int cell) {
+		context.inMaze.set(cell);
+		context.numInMaze++;
+		int tunnel = maze.tunnel(cell);
+		if (tunnel >= 0 && !context.inMaze.get(tunnel)) {
+			context.inMaze.set(tunnel);
+			context.numInMaze++;
+		}
+	} // end of add()
+
+
+	/**
+	 * Pick a random step out of a cell, each wall to another cell with the same probability.
+	 * A step is a direction, plus NUM_DIR if it starts from the other end of the tunnel.
+	 * Steps are drawn from all directions of both ends and drawn again until one leads to a
+	 * different cell, so no list of candidates is built.
+	 */
+	protected static int randomStep(Maze maze, int cell, Random randomInt) {
+		int tunnel = maze.tunnel(cell);
+		int numSteps = tunnel >= 0 ? 2 * NUM_DIR : NUM_DIR;
+		while (true) {
+			int step = randomInt.nextInt(numSteps);
+			int to = maze.neighbour(step < NUM_DIR ? cell : tunnel, step % NUM_DIR);
+			if (to >= 0 && rep(maze, to) != cell)
+				return step;
+		}
+	} // end of randomStep()
+
+
+	/**
+	 * Cell reached by a step.
+	 */
+	protected static int stepTo(Maze maze, int cell, int step) {
+		int from = step < NUM_DIR ? cell : maze.tunnel(cell);
+		return rep(maze, maze.neighbour(from, step % NUM_DIR));
+	} // end of stepTo()
+
+
+	/**
+	 * Knock down the wall crossed by a step.
+	 */
+	protected static void carve(Maze maze, int cell, int step) {
+		int from = step < NUM_DIR ? cell : maze.tunnel(cell);
+		maze.carve(from, step % NUM_DIR);
+	} // end of carve()
+
+} // end of class WilsonGenerator
@@ -0,0 +1,305 @@
+package mazeSolver;
+
+import static maze.Maze.HEX;
+import static maze.Maze.NUM_DIR;
+import static maze.Maze.TUNNEL;
+
+import java.lang.ref.WeakReference;
+
+import maze.IntHeap;
+import maze.IntStack;
+import maze.Maze;
+import maze.MazeTraversal;
+
+/**
+ * Implements the A* maze solving algorithm.
+ *
+ * The search is guided by a heuristic, a lower bound of the number of steps
+ * from a cell to the exit: Manhattan distance for normal mazes, hexagonal
+ * distance for hex mazes and, in tunnel mazes, the shorter of the direct
+ * distance and the distance through any tunnel. Open cells are kept in an
+ * IntHeap keyed by cell index, and the cost of every cell in a MazeTraversal
+ * from Maze.traversal(); both are kept between calls in a Context per thread, so one
+ * solver may solve on many threads at once. The tunnels of the last tunnel maze solved
+ * on a thread are kept there too, so solving that maze again does not scan it again.
+ *
+ */
+public class AStarSolver implements MazeSolver {
+
+	/**
+	 * Lower bound of the number of steps from a cell to the exit.
+	 */
+	public interface Heuristic {
+		public int estimate(int cell);
+	} // end of interface Heuristic
+
+	/**
+	 * Tunnel ends of a maze, and the shortest distance to the goal through each.
+	 */
+	private static class Tunnels {
+		final int num;
+		final int endR[];
+		final int endC[];
+		final int via[];
+
+		/**
+		 * Find the tunnels by scanning the maze once.
+		 * @param direct Direct distance to the goal.
+		 */
+		Tunnels(Maze maze, Heuristic direct) {
+			IntStack ends = new IntStack();
+			for (int id = 0; id < maze.indexSize(); id++)
+				if (maze.isCell(id) && maze.tunnel(id) >= 0)
+					ends.push(id);
+
+			// row, column and remaining distance of the entry end of every tunnel
+			num = ends.size();
+			endR = new int[num];
+			endC = new int[num];
+			via = new int[num];
+			int exitR[] = new int[num];
+			int exitC[] = new int[num];
+			for (int i = 0; i < num; i++) {
+				int end = ends.get(i);
+				int other = maze.tunnel(end);
+				endR[i] = maze.row(end);
+				endC[i] = maze.col(end);
+				exitR[i] = maze.row(other);
+				exitC[i] = maze.col(other);
+				via[i] = 1 + direct.estimate(other);
+			}
+
+			// shorten the distances through chains of tunnels until nothing changes
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int i = 0; i < num; i++) {
+					for (int j = 0; j < num; j++) {
+						int d = 1 + manhattan(exitR[i], exitC[i], endR[j], endC[j]) + via[j];
+						if (d < via[i]) {
+							via[i] = d;
+							changed = true;
+						}
+					}
+				}
+			}
+		} // end of Tunnels()
+	} // end of class Tunnels
+
+	/**
+	 * State of a solve, per thread.
+	 */
+	private static class Context {
+		MazeTraversal search = null;
+		IntHeap open = null;
+		int next[] = new int[NUM_DIR + 1];
+		IntStack path = new IntStack();
+		int cellsExplored = 0;
+		boolean solved = false;
+		// tunnels of the last tunnel maze solved, found for exit tunnelGoal;
+		// the maze is held weakly so a finished maze is not kept alive
+		WeakReference<Maze> tunnelMaze = null;
+		int tunnelGoal = -1;
+		Tunnels tunnels = null;
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+	/**
+	 * Solve a maze using A* search:
+	 *
+	 * 1. Put the entrance into the open set with cost 0.
+	 *
+	 * 2. Take the open cell with the smallest cost + estimate. If it is the exit, stop.
+	 *
+	 * 3. Otherwise, for every reachable neighbor (no wall in between, or through a tunnel),
+	 *    if its cost through this cell is lower than any found before, put it into the open set
+	 *    with that cost. Repeat step 2.
+	 *
+	 * 4. Walk back from the exit through cells one less in cost to get the path.
+	 *
+	 * @param maze The reference of Maze object to solve
+	 */
+	@Override
+	public void solveMaze(Maze maze) {
+		Context context = contexts.get();
+		int start = maze.index(maze.entrance);
+		int goal = maze.index(maze.exit);
+		Heuristic heuristic = createHeuristic(maze, goal);
+
+		if (context.open == null || context.open.capacity() < maze.indexSize())
+			context.open = new IntHeap(maze.indexSize());
+		IntHeap open = context.open;
+		int next[] = context.next;
+		open.clear();
+		context.path.clear();
+		context.cellsExplored = 0;
+		context.solved = false;
+
+		// cost of a cell is its distance in the traversal, unreached cells cost infinity
+		MazeTraversal search = maze.traversal(context.search);
+		context.search = search;
+		search.start(maze);
+		search.reach(start, 0);
+		open.update(start, heuristic.estimate(start));
+
+		while (!open.isEmpty()) {
+			int cell = open.poll();
+			if (!search.isVisited(cell)) {
+				search.visit(cell);
+				context.cellsExplored++;
+				maze.drawFtPrt(cell);
+			}
+			if (cell == goal) {
+				context.solved = true;
+				break;
+			}
+
+			int nextCost = search.distance(cell) + 1;
+			int n = maze.passages(cell, next);
+			for (int i = 0; i < n; i++) {
+				if (search.isReached(next[i]) && nextCost >= search.distance(next[i]))
+					continue;
+				search.reach(next[i], nextCost);
+				open.update(next[i], nextCost + heuristic.estimate(next[i]));
+			}
+		}
+
+		if (context.solved)
+			search.pathTo(maze, goal, context.path);
+	} // end of solveMaze()
+
+
+	/**
+	 * Heuristic used to solve a maze, chosen by maze type.
+	 * Override to plug in another heuristic; it must never overestimate.
+	 * @param maze The maze being solved.
+	 * @param goal Index of the exit.
+	 * @return The heuristic.
+	 */
+	protected Heuristic createHeuristic(Maze maze, int goal) {
+		if (maze.type == HEX)
+			return hexDistance(maze, goal);
+		if (maze.type == TUNNEL)
+			return tunnelDistance(maze, goal);
+		return manhattanDistance(maze, goal);
+	} // end of createHeuristic()
+
+
+	/**
+	 * Tunnel distance to the goal, with the tunnels of the maze found once per thread
+	 * and kept until another maze or goal is solved. Tunnels are fixed by initMaze().
+	 */
+	private Heuristic tunnelDistance(Maze maze, int goal) {
+		Context context = contexts.get();
+		Heuristic direct = manhattanDistance(maze, goal);
+		if (context.tunnelMaze == null || context.tunnelMaze.get() != maze || context.tunnelGoal != goal) {
+			context.tunnels = new Tunnels(maze, direct);
+			context.tunnelMaze = new WeakReference<>(maze);
+			context.tunnelGoal = goal;
+		}
+		return tunnelDistance(maze, direct, context.tunnels);
+	} // end of tunnelDistance()
+
+
+	/**
+	 * Number of steps between two cells of a normal maze if there were no walls.
+	 */
+	public static int manhattan(int r1, int c1, int r2, int c2) {
+		return Math.abs(r1 - r2) + Math.abs(c1 - c2);
+	} // end of manhattan()
+
+
+	/**
+	 * Number of steps between two cells of a hex maze if there were no walls.
+	 * Map coordinates of a hex maze are axial: a step along deltaR/deltaC changes
+	 * r and c by one each only when both change in the same direction.
+	 */
+	public static int hex(int r1, int c1, int r2, int c2) {
+		int dr = r2 - r1;
+		int dc = c2 - c1;
+		if ((dr >= 0) == (dc >= 0))
+			return Math.max(Math.abs(dr), Math.abs(dc));
+		return Math.abs(dr) + Math.abs(dc);
+	} // end of hex()
+
+
+	/**
+	 * Manhattan distance to the goal.
+	 */
+	public static Heuristic manhattanDistance(final Maze maze, int goal) {
+		final int gr = maze.row(goal);
+		final int gc = maze.col(goal);
+		return cell -> manhattan(maze.row(cell), maze.col(cell), gr, gc);
+	} // end of manhattanDistance()
+
+
+	/**
+	 * Hexagonal distance to the goal.
+	 */
+	public static Heuristic hexDistance(final Maze maze, int goal) {
+		final int gr = maze.row(goal);
+		final int gc = maze.col(goal);
+		return cell -> hex(maze.row(cell), maze.col(cell), gr, gc);
+	} // end of hexDistance()
+
+
+	/**
+	 * Shorter of the direct distance to the goal and the distance through any tunnel:
+	 * Manhattan distance to one end, one step through the tunnel, then the same bound
+	 * from the other end, which may take further tunnels. Tunnels are found by
+	 * scanning the maze once.
+	 * @param direct Direct distance to the goal.
+	 */
+	public static Heuristic tunnelDistance(final Maze maze, final Heuristic direct) {
+		return tunnelDistance(maze, direct, new Tunnels(maze, direct));
+	} // end of tunnelDistance()
+
+
+	/**
+	 * Tunnel distance to the goal through tunnels already found.
+	 */
+	private static Heuristic tunnelDistance(final Maze maze, final Heuristic direct, Tunnels tunnels) {
+		if (tunnels.num == 0)
+			return direct;
+		final int num = tunnels.num;
+		final int endR[] = tunnels.endR;
+		final int endC[] = tunnels.endC;
+		final int via[] = tunnels.via;
+		return cell -> {
+			int r = maze.row(cell);
+			int c = maze.col(cell);
+			int best = direct.estimate(cell);
+			for (int i = 0; i < num; i++) {
+				int d = manhattan(r, c, endR[i], endC[i]) + via[i];
+				if (d < best)
+					best = d;
+			}
+			return best;
+		};
+	} // end of tunnelDistance()
+
+
+	@Override
+	public boolean isSolved() {
+		return contexts.get().solved;
+	} // end of isSolved()
+
+
+	@Override
+	public int cellsExplored() {
+		return contexts.get().cellsExplored;
+	} // end of cellsExplored()
+
+
+	/**
+	 * Use after solveMaze(maze), on the same thread, to get the solution.
+	 * @return Indices (see Maze.index()) of the cells on the path, from entrance to exit.
+	 * Empty if the maze is not solved.
+	 */
+	public int[] path() {
+		return contexts.get().path.toArray();
+	} // end of path()
+
+} // end of class AStarSolver
@@ -0,0 +1,158 @@
+package mazeSolver;
+
+import maze.IntStack;
+import maze.Maze;
+import maze.MazeTraversal;
+import maze.SolverEvents;
+
+/**
+ * Implements the Bidirectional Breadth First Search maze solving algorithm.
+ *
+ * Two searches start from the entrance and the exit, each a MazeTraversal with
+ * its own queue and distances. A cell is reached by at most one of them, so the
+ * meeting of the two searches is detected in O(1) when one of them steps into a
+ * cell reached by the other. Both traversals come from Maze.traversal() and are
+ * kept between calls in a Context per thread, so the solver works on any maze,
+ * including mazes without map[][], starts again in O(1), and may solve on many
+ * threads at once.
+ *
+ */
+public class BiDirectionalBreadthFirstSolver implements MazeSolver {
+
+	/**
+	 * State of a solve, per thread.
+	 */
+	private static class Context {
+		MazeTraversal fromEntrance = null;
+		MazeTraversal fromExit = null;
+		int next[] = new int[Maze.NUM_DIR + 1];
+		IntStack path = new IntStack();
+		// half of the path from the exit
+		IntStack exitHalf = new IntStack();
+		int cellsExplored = 0;
+		boolean solved = false;
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+	/**
+	 * Solve a maze using Bidirectional Breadth First Search:
+	 *
+	 * 1. Put the entrance into the entrance queue and the exit into the exit queue.
+	 *
+	 * 2. Take the queue with fewer cells and expand one whole level of it: for every cell,
+	 *    put each reachable neighbor (no wall in between, or through a tunnel) that no search
+	 *    has reached into the same queue, one further than the cell.
+	 *
+	 * 3. When a reachable neighbor was already reached by the other search, the two searches
+	 *    have met. Otherwise repeat step 2.
+	 *
+	 * 4. Walk back from the meeting point to the entrance and to the exit, through cells one
+	 *    nearer in each search, and join the two halves.
+	 *
+	 * @param maze The reference of Maze object to solve
+	 */
+	@Override
+	public void solveMaze(Maze maze) {
+		Context context = contexts.get();
+		int start = maze.index(maze.entrance);
+		int goal = maze.index(maze.exit);
+		int next[] = context.next;
+
+		context.path.clear();
+		context.cellsExplored = 0;
+		context.solved = false;
+
+		MazeTraversal fromEntrance = maze.traversal(context.fromEntrance);
+		MazeTraversal fromExit = maze.traversal(context.fromExit);
+		context.fromEntrance = fromEntrance;
+		context.fromExit = fromExit;
+		fromEntrance.start(maze);
+		fromExit.start(maze);
+		fromEntrance.add(start, 0);
+		if (start == goal) {
+			expand(maze, context, fromEntrance.poll());
+			context.solved = true;
+			context.path.push(start);
+			return;
+		}
+		fromExit.add(goal, 0);
+
+		// cells on each side of the meeting point
+		int meetEntrance = -1;
+		int meetExit = -1;
+
+		while (meetEntrance < 0 && !fromEntrance.isEmpty() && !fromExit.isEmpty()) {
+			boolean isEntrance = fromEntrance.size() <= fromExit.size();
+			MazeTraversal side = isEntrance ? fromEntrance : fromExit;
+			MazeTraversal other = isEntrance ? fromExit : fromEntrance;
+
+			for (int n = side.size(); n > 0 && meetEntrance < 0; n--) {
+				int cell = side.poll();
+				expand(maze, context, cell);
+
+				int numNext = maze.passages(cell, next);
+				for (int i = 0; i < numNext; i++) {
+					if (other.isReached(next[i])) {
+						// the searches meet between cell and next
+						meetEntrance = isEntrance ? cell : next[i];
+						meetExit = isEntrance ? next[i] : cell;
+						break;
+					}
+					if (!side.isReached(next[i]))
+						side.add(next[i], side.distance(cell) + 1);
+				}
+			}
+		}
+
+		if (meetEntrance < 0)
+			return;
+
+		// the meeting cell of the other search may not be expanded yet
+		if (!fromEntrance.isVisited(meetEntrance))
+			expand(maze, context, meetEntrance);
+		if (!fromExit.isVisited(meetExit))
+			expand(maze, context, meetExit);
+		maze.event(SolverEvents.MEET, meetEntrance);
+		maze.event(SolverEvents.MEET, meetExit);
+		context.solved = true;
+
+		fromEntrance.pathTo(maze, meetEntrance, context.path);
+		fromExit.pathTo(maze, meetExit, context.exitHalf);
+		for (int i = context.exitHalf.size() - 1; i >= 0; i--)
+			context.path.push(context.exitHalf.get(i));
+	} // end of solveMaze()
+
+
+	/**
+	 * Count a cell as explored and draw its footprint.
+	 */
+	private void expand(Maze maze, Context context, int cell) {
+		context.cellsExplored++;
+		maze.drawFtPrt(cell);
+	} // end of expand()
+
+
+	@Override
+	public boolean isSolved() {
+		return contexts.get().solved;
+	} // end of isSolved()
+
+
+	@Override
+	public int cellsExplored() {
+		return contexts.get().cellsExplored;
+	} // end of cellsExplored()
+
+
+	/**
+	 * Use after solveMaze(maze), on the same thread, to get the solution.
+	 * @return Indices (see Maze.index()) of the cells on the path, from entrance to exit.
+	 * Empty if the maze is not solved.
+	 */
+	public int[] path() {
+		return contexts.get().path.toArray();
+	} // end of path()
+
+} // end of class BiDirectionalBreadthFirstSolver
@@ -1,30 +1,67 @@
 package mazeSolver;
 
 import static maze.Maze.HEX;
-import static maze.Maze.NORMAL;
 import static maze.Maze.NUM_DIR;
-import static maze.Maze.TUNNEL;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Stack;
 
 import maze.Cell;
+import maze.IntStack;
 import maze.Maze;
+import maze.MazeTraversal;
+import maze.SolverEvents;
 
 /**
  * Implements the Bidirectional Recursive Backtracking maze solving algorithm.
+ *
+ * The cells visited from the entrance and from the exit are marked in two MazeTraversals,
+ * and the cells on the stack of each side counted in the distances of its traversal, so
+ * looking a cell up in either stack takes O(1). The traversals and stacks are kept between
+ * calls in a Context per thread, so the solver may be reused. Without a Random, every thread
+ * draws from one of its own in its Context, and the solver may solve on many threads at once.
+ * A Random given to the constructor is drawn from by every thread, so only a Random safe to
+ * share (java.util.Random, not FastRandom) may be used on many threads at once.
  * 
  * @author rommel gaddi
  */
 public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
 
-    private Maze mMaze;
-	private HashSet<Cell> entranceVisitedCells = new HashSet<>();
-	private HashSet<Cell> exitVisitedCells = new HashSet<>();
-	private HashSet<Cell> visitedCells = new HashSet<>();
-	boolean entranceMeetsExit = false;
+	/**
+	 * State of a solve, per thread.
+	 */
+	private static class Context {
+		// cells visited from the entrance and the exit, with the number of times each is on the stack of the side
+		MazeTraversal entranceVisited = null;
+		MazeTraversal exitVisited = null;
+		IntStack entrancePrevious = new IntStack();
+		IntStack exitPrevious = new IntStack();
+		// directions of the unvisited neighbors of a cell, 6 for the tunnel
+		int unvisited[] = new int[NUM_DIR + 1];
+		int exitId = -1;
+		int cellsExplored = 0;
+		// random numbers of the thread when the solver is not given a Random, seeded from the clock once
+		Random random = null;
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+	private Random random;
+
+
+	/**
+	 * default constructor, seeds a random number generator per thread from the clock
+	 */
+	public BiDirectionalRecursiveBacktrackerSolver() {
+		this(null);
+	} // end of BiDirectionalRecursiveBacktrackerSolver()
+
+
+	/**
+	 * construct the solver
+	 * @param random Source of random numbers, so a solution can be reproduced. null to seed one per thread from the clock.
+	 */
+	public BiDirectionalRecursiveBacktrackerSolver(Random random) {
+		this.random = random;
+	} // end of BiDirectionalRecursiveBacktrackerSolver()
 
 	
     /**
@@ -49,131 +86,175 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
      */
 	@Override
 	public void solveMaze(Maze maze) {
+		Context context = contexts.get();
+		context.entranceVisited = maze.traversal(context.entranceVisited);
+		context.exitVisited = maze.traversal(context.exitVisited);
+		MazeTraversal entranceVisited = context.entranceVisited;
+		MazeTraversal exitVisited = context.exitVisited;
+		IntStack entrancePreviousCell = context.entrancePrevious;
+		IntStack exitPreviousCell = context.exitPrevious;
+		entranceVisited.start(maze);
+		exitVisited.start(maze);
+		entrancePreviousCell.clear();
+		exitPreviousCell.clear();
+		context.exitId = maze.index(maze.exit);
+		context.cellsExplored = 0;
 
-        mMaze = maze;
-       	Stack<Cell> entrancePreviousCell = new Stack<>();
-       	Stack<Cell> exitPreviousCell = new Stack<>();
-       	
-        int randomNeighbor = 0;
-        Random randomInt = new Random(System.currentTimeMillis());
+		boolean entranceMeetsExit = false;
+		if (random == null && context.random == null)
+			context.random = new Random();
+		Random randomInt = random != null ? random : context.random;
 
 		// start at entrance
 		Cell currentEntranceCell = maze.entrance;
 		Cell currentExitCell = maze.exit;
-		
+
 		maze.drawFtPrt(currentEntranceCell);
-		entranceVisitedCells.add(currentEntranceCell);        
-		visitedCells.add(currentEntranceCell);
-		entrancePreviousCell.add(currentEntranceCell);
-		
+		visit(maze, context, entranceVisited, currentEntranceCell);
+		push(maze, entranceVisited, entrancePreviousCell, currentEntranceCell);
+
 		maze.drawFtPrt(currentExitCell);
-		exitVisitedCells.add(currentExitCell); 
-		//visitedCells.add(currentExitCell);
-		exitPreviousCell.add(currentExitCell);
-               
-        while (!entranceMeetsExit) {
-
-        	//ENTRANCE CELLS
-        	
-        	ArrayList<Integer> unvisitedNeighbors = new ArrayList<>();
-            // get all unvisited neighbors
-            for (int i = 0; i < NUM_DIR; i++) {
-                Cell currentNeighbor = currentEntranceCell.neigh[i];
-                if (isCellInMazeAndNotVisited(currentNeighbor) && (!entranceVisitedCells.contains(currentNeighbor))
-                		&& (!currentEntranceCell.wall[i].present) ) {
-                    unvisitedNeighbors.add(i);
-                }
-            }
-            
-            // check for tunnels and add it as extra neighbor
-            if ((currentEntranceCell.tunnelTo != null)
-                    && (!entranceVisitedCells.contains(currentEntranceCell.tunnelTo))) {
-                unvisitedNeighbors.add(6);
-            }
-            
-            if (unvisitedNeighbors.size() > 0) {
-            	// select cell from random neighbors
-                randomNeighbor = unvisitedNeighbors.get(randomInt.nextInt(unvisitedNeighbors.size()));
-                // add the current cell to the stack
-                entrancePreviousCell.add(currentEntranceCell);
-                
-                // set the random neighbor as the current cell
-                if (randomNeighbor == 6)
-                	currentEntranceCell = currentEntranceCell.tunnelTo;
-                else
-                	currentEntranceCell = currentEntranceCell.neigh[randomNeighbor];
-                
-                // check if entrance and exit path have met
-                if((exitPreviousCell.contains(currentEntranceCell))){
-                	entranceMeetsExit = true;
-                	isSolved();
-                 }
-                // draw footprint
-                maze.drawFtPrt(currentEntranceCell);
-                // mark the current cell as visited
-                entranceVisitedCells.add(currentEntranceCell);
-                visitedCells.add(currentEntranceCell);
-            } else {
-            	if (entrancePreviousCell.size() > 0)
-            		currentEntranceCell = entrancePreviousCell.pop();
-            	else
-            		// exit loop if all cells have been visited
-            		break;
-            }
-        
-        
-        	//EXIT CELLS
-        	
-        	unvisitedNeighbors = new ArrayList<>();
-            // get all unvisited neighbors
-            for (int i = 0; i < NUM_DIR; i++) {
-                Cell currentNeighbor = currentExitCell.neigh[i];
-                if (isCellInMazeAndNotVisited(currentNeighbor) && (!exitVisitedCells.contains(currentNeighbor))
-                		&& (!currentExitCell.wall[i].present) ) {
-                    unvisitedNeighbors.add(i);
-                }
-            }
-
-            // check for tunnels and add it as extra neighbor
-            if ((currentExitCell.tunnelTo != null)
-                    && (!exitVisitedCells.contains(currentExitCell.tunnelTo))) {
-                unvisitedNeighbors.add(6);
-            }
-            
-            if (unvisitedNeighbors.size() > 0) {
-            	// select cell from random neighbors
-                randomNeighbor = unvisitedNeighbors.get(randomInt.nextInt(unvisitedNeighbors.size()));
-                // add the current cell to the stack
-                exitPreviousCell.add(currentExitCell);
-                // set the random neighbor as the current cell
-                if (randomNeighbor == 6)
-                	currentExitCell = currentExitCell.tunnelTo;
-                else
-                	currentExitCell = currentExitCell.neigh[randomNeighbor];
-                
-                // check if entrance and exit path have met
-                if((entrancePreviousCell.contains(currentExitCell))){
-                	entranceMeetsExit = true;
-                	isSolved();
-                 }
-                // draw footprint
-                maze.drawFtPrt(currentExitCell);
-                // mark the current cell as visited
-                exitVisitedCells.add(currentExitCell);
-                visitedCells.add(currentExitCell);
-            } else {
-                // exit if no more unvisited neighbors
-            	if (exitPreviousCell.size() > 0)
-            		currentExitCell = exitPreviousCell.pop();
-            	else
-            		break;
-            }
-        
-        }
- 		
+		visit(maze, context, exitVisited, currentExitCell);
+		push(maze, exitVisited, exitPreviousCell, currentExitCell);
+
+		while (!entranceMeetsExit) {
+
+			//ENTRANCE CELLS
+
+			int numUnvisited = unvisitedNeighbors(maze, context, entranceVisited, currentEntranceCell);
+			if (numUnvisited > 0) {
+				// select cell from random neighbors
+				int randomNeighbor = context.unvisited[randomInt.nextInt(numUnvisited)];
+				// add the current cell to the stack
+				push(maze, entranceVisited, entrancePreviousCell, currentEntranceCell);
+
+				// set the random neighbor as the current cell
+				if (randomNeighbor == NUM_DIR) {
+					currentEntranceCell = currentEntranceCell.tunnelTo;
+					maze.event(SolverEvents.TUNNEL, currentEntranceCell);
+				} else
+					currentEntranceCell = currentEntranceCell.neigh[randomNeighbor];
+
+				// check if entrance and exit path have met
+				if (isOnStack(maze, exitVisited, currentEntranceCell)) {
+					entranceMeetsExit = true;
+					maze.event(SolverEvents.MEET, currentEntranceCell);
+				}
+				// draw footprint
+				maze.drawFtPrt(currentEntranceCell);
+				// mark the current cell as visited
+				visit(maze, context, entranceVisited, currentEntranceCell);
+			} else {
+				if (!entrancePreviousCell.isEmpty()) {
+					currentEntranceCell = pop(maze, entranceVisited, entrancePreviousCell);
+					maze.event(SolverEvents.BACKTRACK, currentEntranceCell);
+				} else
+					// exit loop if all cells have been visited
+					break;
+			}
+
+
+			//EXIT CELLS
+
+			numUnvisited = unvisitedNeighbors(maze, context, exitVisited, currentExitCell);
+			if (numUnvisited > 0) {
+				// select cell from random neighbors
+				int randomNeighbor = context.unvisited[randomInt.nextInt(numUnvisited)];
+				// add the current cell to the stack
+				push(maze, exitVisited, exitPreviousCell, currentExitCell);
+				// set the random neighbor as the current cell
+				if (randomNeighbor == NUM_DIR) {
+					currentExitCell = currentExitCell.tunnelTo;
+					maze.event(SolverEvents.TUNNEL, currentExitCell);
+				} else
+					currentExitCell = currentExitCell.neigh[randomNeighbor];
+
+				// check if entrance and exit path have met
+				if (isOnStack(maze, entranceVisited, currentExitCell)) {
+					entranceMeetsExit = true;
+					maze.event(SolverEvents.MEET, currentExitCell);
+				}
+				// draw footprint
+				maze.drawFtPrt(currentExitCell);
+				// mark the current cell as visited
+				visit(maze, context, exitVisited, currentExitCell);
+			} else {
+				// exit if no more unvisited neighbors
+				if (!exitPreviousCell.isEmpty()) {
+					currentExitCell = pop(maze, exitVisited, exitPreviousCell);
+					maze.event(SolverEvents.BACKTRACK, currentExitCell);
+				} else
+					break;
+			}
+
+		}
+
 	} // end of solveMaze()
 
 
+	/**
+	 * Directions (NUM_DIR for the tunnel) of the open neighbors of a cell not visited yet
+	 * by either side, or by this side for the tunnel, into context.unvisited.
+	 * @param side Traversal of the side moving from the cell.
+	 * @return Number of neighbors.
+	 */
+	private int unvisitedNeighbors(Maze maze, Context context, MazeTraversal side, Cell cell) {
+		int n = 0;
+		// get all unvisited neighbors
+		for (int i = 0; i < NUM_DIR; i++) {
+			Cell neighbor = cell.neigh[i];
+			if (isCellInMazeAndNotVisited(maze, context, neighbor) && !side.isReached(maze.index(neighbor))
+					&& !cell.wall[i].present)
+				context.unvisited[n++] = i;
+		}
+		// check for tunnels and add it as extra neighbor
+		if (cell.tunnelTo != null && !side.isReached(maze.index(cell.tunnelTo)))
+			context.unvisited[n++] = NUM_DIR;
+		return n;
+	} // end of unvisitedNeighbors()
+
+
+	/**
+	 * Mark a cell visited by a side.
+	 */
+	private void visit(Maze maze, Context context, MazeTraversal side, Cell cell) {
+		int id = maze.index(cell);
+		if (!side.isReached(id)) {
+			side.reach(id, 0);
+			context.cellsExplored++;
+		}
+	} // end of visit()
+
+
+	/**
+	 * Push a cell visited by a side onto the stack of the side.
+	 */
+	private void push(Maze maze, MazeTraversal side, IntStack stack, Cell cell) {
+		int id = maze.index(cell);
+		side.reach(id, side.distance(id) + 1);
+		stack.push(id);
+	} // end of push()
+
+
+	/**
+	 * Pop a cell from the stack of a side.
+	 */
+	private Cell pop(Maze maze, MazeTraversal side, IntStack stack) {
+		int id = stack.pop();
+		side.reach(id, side.distance(id) - 1);
+		return maze.map[maze.row(id)][maze.col(id)];
+	} // end of pop()
+
+
+	/**
+	 * @return True if the cell is on the stack of a side.
+	 */
+	private boolean isOnStack(Maze maze, MazeTraversal side, Cell cell) {
+		int id = maze.index(cell);
+		return side.isReached(id) && side.distance(id) > 0;
+	} // end of isOnStack()
+
+
 	@Override
 	public boolean isSolved() {
 		return true;
@@ -181,31 +262,41 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
 
 	@Override
 	public int cellsExplored() {
-		return entranceVisitedCells.size() + exitVisitedCells.size();
+		return contexts.get().cellsExplored;
 	} // end of cellsExplored()
 
 	
     /**
-    * Check whether the cell is in the maze and not yet visited.
+    * Check whether the cell is in the maze and not yet visited, from the entrance or, the exit cell
+    * apart, from the exit.
     */
-   private boolean isCellInMazeAndNotVisited(Cell cell) {
+   private boolean isCellInMazeAndNotVisited(Maze maze, Context context, Cell cell) {
    	
-       if (mMaze.type == HEX) {
+       if (maze.type == HEX) {
            return cell != null && 
-        		!visitedCells.contains(cell) &&
            		cell.r >= 0 && 
-           		cell.r < mMaze.sizeR && 
+           		cell.r < maze.sizeR && 
            		cell.c >= (cell.r + 1) / 2 && 
-           		cell.c < mMaze.sizeC + (cell.r + 1) / 2;
+           		cell.c < maze.sizeC + (cell.r + 1) / 2 &&
+           		!isVisited(maze, context, cell);
        } else {
            return cell != null && 
-        		!visitedCells.contains(cell) &&
            		cell.r >= 0 && 
-           		cell.r < mMaze.sizeR && 
+           		cell.r < maze.sizeR && 
            		cell.c >= 0 && 
-           		cell.c < mMaze.sizeC;
+           		cell.c < maze.sizeC &&
+           		!isVisited(maze, context, cell);
        }    	
    } // end of isCellInMazeAndNotVisited
 
+
+	/**
+	 * @return True if the cell was visited from the entrance, or from the exit after leaving the exit cell.
+	 */
+	private boolean isVisited(Maze maze, Context context, Cell cell) {
+		int id = maze.index(cell);
+		return context.entranceVisited.isReached(id) || (id != context.exitId && context.exitVisited.isReached(id));
+	} // end of isVisited()
+
 	
 } // end of class BiDirectionalRecursiveBackTrackerSolver
@@ -0,0 +1,102 @@
+package mazeSolver;
+
+import maze.IntStack;
+import maze.Maze;
+import maze.MazeTraversal;
+
+/**
+ * Implements the Breadth First Search maze solving algorithm.
+ *
+ * Cells are handled by index through a MazeTraversal: the queue is an int ring
+ * buffer and the distance of every cell is kept in a flat int array, so the solver
+ * needs about 8 bytes per cell and works on any maze, including mazes without map[][].
+ * The traversal comes from Maze.traversal(), so its state is kept where the maze keeps
+ * its cells. It is kept with the path and the results in a Context per thread, reused
+ * between calls, so one solver may solve on many threads at once, and solving again
+ * allocates nothing once the context has grown to the size of the maze.
+ *
+ */
+public class BreadthFirstSolver implements MazeSolver {
+
+	/**
+	 * State of a solve, per thread.
+	 */
+	private static class Context {
+		MazeTraversal search = null;
+		IntStack path = new IntStack();
+		int cellsExplored = 0;
+		boolean solved = false;
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+	/**
+	 * Solve a maze using Breadth First Search:
+	 *
+	 * 1. Put the entrance into a queue.
+	 *
+	 * 2. Take the first cell of the queue. If it is the exit, stop.
+	 *
+	 * 3. Otherwise put every neighbor that is reachable (no wall in between, or through a tunnel)
+	 *    and not yet seen into the queue, one further from the entrance than the cell. Repeat step 2.
+	 *
+	 * 4. Walk back from the exit through cells one nearer to the entrance to get the path.
+	 *
+	 * Cells are taken in order of their distance from the entrance, so the path is a shortest path.
+	 *
+	 * @param maze The reference of Maze object to solve
+	 */
+	@Override
+	public void solveMaze(Maze maze) {
+		Context context = contexts.get();
+		int start = maze.index(maze.entrance);
+		int goal = maze.index(maze.exit);
+
+		context.path.clear();
+		context.cellsExplored = 0;
+		context.solved = false;
+
+		MazeTraversal search = maze.traversal(context.search);
+		context.search = search;
+		search.start(maze);
+		search.add(start, 0);
+
+		while (!search.isEmpty()) {
+			int cell = search.poll();
+			context.cellsExplored++;
+			maze.drawFtPrt(cell);
+			if (cell == goal) {
+				context.solved = true;
+				break;
+			}
+			search.expand(maze, cell, null);
+		}
+
+		if (context.solved)
+			search.pathTo(maze, goal, context.path);
+	} // end of solveMaze()
+
+
+	@Override
+	public boolean isSolved() {
+		return contexts.get().solved;
+	} // end of isSolved()
+
+
+	@Override
+	public int cellsExplored() {
+		return contexts.get().cellsExplored;
+	} // end of cellsExplored()
+
+
+	/**
+	 * Use after solveMaze(maze), on the same thread, to get the solution.
+	 * @return Indices (see Maze.index()) of the cells on the shortest path, from entrance to exit.
+	 * Empty if the maze is not solved.
+	 */
+	public int[] path() {
+		return contexts.get().path.toArray();
+	} // end of path()
+
+} // end of class BreadthFirstSolver
@@ -0,0 +1,273 @@
+package mazeSolver;
+
+import static maze.Maze.NUM_DIR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import maze.IntStack;
+import maze.Maze;
+
+/**
+ * Implements the Dead-End Filling maze solving algorithm.
+ *
+ * Cells are handled by index: the number of open walls of each cell is kept
+ * in an int array and the dead ends to fill in an int stack, so the solver
+ * needs about 5 bytes per cell and works on any maze, including mazes without map[][].
+ * Open neighbors come from Maze.passages(). The arrays and stacks are kept between
+ * calls in a Context per thread, so the solver may solve on many threads at once.
+ * With more than one thread, the bands are filled on a pool of threads kept by the solver.
+ *
+ */
+public class DeadEndFillingSolver implements MazeSolver {
+
+	/**
+	 * State of a solve, per thread.
+	 */
+	private static class Context {
+		int degree[] = new int[0];
+		boolean filled[] = new boolean[0];
+		int next[] = new int[NUM_DIR + 1];
+		IntStack deadEnds = new IntStack();
+		// the cells left, walked from the entrance
+		IntStack path = new IntStack();
+		int cellsExplored = 0;
+		boolean solved = false;
+		// dead ends, neighbors outside the band, and open neighbors of a cell, per band
+		IntStack bandDeadEnds[] = new IntStack[0];
+		IntStack bandOthers[] = new IntStack[0];
+		int bandNext[][] = new int[0][];
+	} // end of class Context
+
+	private int parallelism;
+	private ForkJoinPool pool = null;
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+
+	/**
+	 * default constructor, solves on the calling thread
+	 */
+	public DeadEndFillingSolver() {
+		this(1);
+	} // end of DeadEndFillingSolver()
+
+
+	/**
+	 * construct the solver
+	 * @param parallelism Number of threads filling dead ends, 1 to solve on the calling thread only.
+	 */
+	public DeadEndFillingSolver(int parallelism) {
+		this.parallelism = Math.max(parallelism, 1);
+	} // end of DeadEndFillingSolver()
+
+
+	/**
+	 * Solve a perfect maze using Dead-End Filling:
+	 *
+	 * 1. Count the open walls (and tunnels) of every cell. A cell with a count of 1, other than
+	 *    the entrance and exit, is a dead end.
+	 *
+	 * 2. Fill a dead end, and take one off the count of its open neighbor. If the neighbor
+	 *    becomes a dead end, fill it too. Repeat until no dead end is left.
+	 *
+	 * 3. In a perfect maze only the path from entrance to exit is left. Walk it from the entrance.
+	 *
+	 * Every cell is looked at, whatever the path, so the time depends on the size of the maze only.
+	 *
+	 * With more than one thread, the maze is split into bands of consecutive indices (rows of
+	 * cells). Every thread counts and fills the dead ends of its band, and keeps the neighbors in
+	 * other bands for later. These are then handled on the calling thread, which fills the dead
+	 * ends left. The cells left do not depend on the order of filling, so the result is the same.
+	 *
+	 * @param maze The reference of Maze object to solve
+	 */
+	@Override
+	public void solveMaze(final Maze maze) {
+		final int start = maze.index(maze.entrance);
+		final int goal = maze.index(maze.exit);
+		final int size = maze.indexSize();
+		final Context context = contexts.get();
+
+		if (context.degree.length < size) {
+			context.degree = new int[size];
+			context.filled = new boolean[size];
+		} else {
+			Arrays.fill(context.filled, 0, size, false);
+		}
+		int degree[] = context.degree;
+		boolean filled[] = context.filled;
+		IntStack deadEnds = context.deadEnds;
+		IntStack walk = context.path;
+		deadEnds.clear();
+		walk.clear();
+		context.cellsExplored = 0;
+		context.solved = false;
+
+		if (parallelism == 1) {
+			// the band is the whole maze, no neighbor is outside it
+			fillBand(maze, context, 0, size, start, goal, deadEnds, deadEnds, context.next);
+		} else {
+			// fill every band in parallel, keeping neighbors outside the band
+			final int step = (size + parallelism - 1) / parallelism;
+			if (context.bandDeadEnds.length < parallelism) {
+				context.bandDeadEnds = new IntStack[parallelism];
+				context.bandOthers = new IntStack[parallelism];
+				context.bandNext = new int[parallelism][];
+				for (int b = 0; b < parallelism; b++) {
+					context.bandDeadEnds[b] = new IntStack();
+					context.bandOthers[b] = new IntStack();
+					context.bandNext[b] = new int[NUM_DIR + 1];
+				}
+			}
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			int numBands = 0;
+			for (int from = 0; from < size; from += step) {
+				final int lo = from;
+				final int hi = Math.min(from + step, size);
+				final IntStack bandDeadEnds = context.bandDeadEnds[numBands];
+				final IntStack others = context.bandOthers[numBands];
+				final int buffer[] = context.bandNext[numBands++];
+				bandDeadEnds.clear();
+				others.clear();
+				tasks.add(pool().submit(() -> fillBand(maze, context, lo, hi, start, goal, bandDeadEnds, others, buffer)));
+			}
+			for (ForkJoinTask<?> task : tasks)
+				task.join();
+
+			// take the filled cells off their neighbors in other bands
+			for (int b = 0; b < numBands; b++) {
+				IntStack others = context.bandOthers[b];
+				while (!others.isEmpty()) {
+					int next = others.pop();
+					if (!filled[next] && --degree[next] == 1 && next != start && next != goal)
+						deadEnds.push(next);
+				}
+			}
+		}
+		fill(maze, context, 0, size, start, goal, deadEnds, deadEnds, context.next);
+
+		int cellsExplored = 0;
+		for (int id = 0; id < size; id++)
+			if (filled[id])
+				cellsExplored++;
+
+		// walk the cells left from the entrance
+		int previous = -1;
+		int cell = start;
+		walk.push(cell);
+		while (cell != goal && walk.size() <= size) {
+			int next = nextOnPath(maze, context, cell, previous);
+			if (next < 0)
+				break;
+			previous = cell;
+			cell = next;
+			walk.push(cell);
+		}
+		context.solved = cell == goal;
+		context.cellsExplored = cellsExplored + walk.size();
+
+		if (context.solved) {
+			for (int i = 0; i < walk.size(); i++)
+				maze.drawFtPrt(walk.get(i));
+		} else {
+			walk.clear();
+		}
+	} // end of solveMaze()
+
+
+	/**
+	 * Pool of the threads filling bands, started by the first maze solved in parallel.
+	 * Its threads are daemons, and end when idle.
+	 */
+	private synchronized ForkJoinPool pool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
+		return pool;
+	} // end of pool()
+
+
+	/**
+	 * Count the open walls of the cells in [lo, hi), and fill the dead ends among them.
+	 * @param deadEnds Empty stack for the dead ends, owned by the calling thread.
+	 * @param others Receives open neighbors outside [lo, hi) of filled cells.
+	 * @param buffer Room for the open neighbors of a cell, owned by the calling thread.
+	 */
+	private void fillBand(Maze maze, Context context, int lo, int hi, int start, int goal, IntStack deadEnds,
+			IntStack others, int buffer[]) {
+		int degree[] = context.degree;
+		for (int id = lo; id < hi; id++) {
+			if (!maze.isCell(id))
+				continue;
+			int count = maze.passages(id, buffer);
+			degree[id] = count;
+			if (count == 1 && id != start && id != goal)
+				deadEnds.push(id);
+		}
+		fill(maze, context, lo, hi, start, goal, deadEnds, others, buffer);
+	} // end of fillBand()
+
+
+	/**
+	 * Fill the dead ends on the stack, and the dead ends they lead to, inside [lo, hi).
+	 * @param others Receives open neighbors outside [lo, hi) of filled cells.
+	 * @param buffer Room for the open neighbors of a cell, owned by the calling thread.
+	 */
+	private void fill(Maze maze, Context context, int lo, int hi, int start, int goal, IntStack deadEnds,
+			IntStack others, int buffer[]) {
+		int degree[] = context.degree;
+		boolean filled[] = context.filled;
+		while (!deadEnds.isEmpty()) {
+			int cell = deadEnds.pop();
+			filled[cell] = true;
+			int n = maze.passages(cell, buffer);
+			for (int i = 0; i < n; i++) {
+				int next = buffer[i];
+				if (next < lo || next >= hi)
+					others.push(next);
+				else if (!filled[next] && --degree[next] == 1 && next != start && next != goal)
+					deadEnds.push(next);
+			}
+		}
+	} // end of fill()
+
+
+	/**
+	 * Open neighbor (or tunnel) of a cell that is not filled, other than the previous cell.
+	 * @return Index of the neighbor, -1 if there is none.
+	 */
+	private int nextOnPath(Maze maze, Context context, int cell, int previous) {
+		int next[] = context.next;
+		boolean filled[] = context.filled;
+		int n = maze.passages(cell, next);
+		for (int i = 0; i < n; i++)
+			if (next[i] != previous && !filled[next[i]])
+				return next[i];
+		return -1;
+	} // end of nextOnPath()
+
+
+	@Override
+	public boolean isSolved() {
+		return contexts.get().solved;
+	} // end of isSolved()
+
+
+	@Override
+	public int cellsExplored() {
+		return contexts.get().cellsExplored;
+	} // end of cellsExplored()
+
+
+	/**
+	 * Use after solveMaze(maze), on the same thread, to get the solution.
+	 * @return Indices (see Maze.index()) of the cells on the path, from entrance to exit.
+	 * Empty if the maze is not solved.
+	 */
+	public int[] path() {
+		return contexts.get().path.toArray();
+	} // end of path()
+
+} // end of class DeadEndFillingSolver
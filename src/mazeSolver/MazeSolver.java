@@ -4,6 +4,10 @@ import maze.Maze;
 
 /**
  * Interface of a maze solveer.
+ *
+ * A solver may be reused for any number of mazes, and may solve on many threads at
+ * once, each with its own maze. Scratch state is kept per thread, and the results
+ * (isSolved(), cellsExplored()) are those of the last solve on the calling thread.
  * 
  * @author Youhan Xia
  * @author Jeffrey Chan
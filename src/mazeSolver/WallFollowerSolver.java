@@ -3,6 +3,8 @@ package mazeSolver;
 
 import maze.Cell;
 import maze.Maze;
+import maze.MazeTraversal;
+import maze.SolverEvents;
 import static maze.Maze.HEX;
 import static maze.Maze.NORMAL;
 import static maze.Maze.TUNNEL;
@@ -10,18 +12,27 @@ import static maze.Maze.NORTH;
 import static maze.Maze.EAST;
 import static maze.Maze.SOUTH;
 import static maze.Maze.WEST;
-import java.util.HashSet;
 
 
 /**
  * Implements the Wall Follower maze solving algorithm.
  *
+ * The cells visited are marked in a MazeTraversal, kept between calls in a Context
+ * per thread, so the solver may be reused, and may solve on many threads at once.
+ *
  * @author rommel gaddi
  */
 public class WallFollowerSolver implements MazeSolver {
 
-	private Maze mMaze;
-	private HashSet<Cell> visitedCells = new HashSet<>();
+	/**
+	 * State of a solve, per thread.
+	 */
+	private static class Context {
+		MazeTraversal visited = null;
+		int cellsExplored = 0;
+	} // end of class Context
+
+	private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
 
 
     /**
@@ -44,7 +55,10 @@ public class WallFollowerSolver implements MazeSolver {
      */
 	@Override
 	public void solveMaze(Maze maze) {
-		mMaze = maze;
+		Context context = contexts.get();
+		context.visited = maze.traversal(context.visited);
+		context.visited.start(maze);
+		context.cellsExplored = 0;
 		int leftNeighbor = 0;
 		int left2Neighbor = 0;
 		int rightNeighbor = 0;
@@ -53,9 +67,9 @@ public class WallFollowerSolver implements MazeSolver {
 		// start at entrance
 		Cell currentCell = maze.entrance;
 		maze.drawFtPrt(currentCell);
-		visitedCells.add(currentCell);
+		visit(maze, context, currentCell);
 
-		if ((mMaze.type == NORMAL) || (mMaze.type == TUNNEL)) {
+		if ((maze.type == NORMAL) || (maze.type == TUNNEL)) {
 
 			while (currentCell != maze.exit) {
 				
@@ -77,19 +91,22 @@ public class WallFollowerSolver implements MazeSolver {
 				// check for tunnels
 				if (currentCell.tunnelTo != null) {
 					currentCell = currentCell.tunnelTo;
+					maze.event(SolverEvents.TUNNEL, currentCell);
 					maze.drawFtPrt(currentCell);
-					if (!visitedCells.contains(currentCell)) visitedCells.add(currentCell);
+					visit(maze, context, currentCell);
 					// go back to current cell if dead-end
 					if (currentCell.wall[NORTH].present && currentCell.wall[EAST].present 
-							&& currentCell.wall[SOUTH].present && currentCell.wall[WEST].present)
+							&& currentCell.wall[SOUTH].present && currentCell.wall[WEST].present) {
 						currentCell = currentCell.tunnelTo;
+						maze.event(SolverEvents.TUNNEL, currentCell);
+					}
 				}
 				
 				// if left neighbor has no wall go to left neighbor
 				if (!currentCell.wall[leftNeighbor].present) {
 					// get out of loop
-					if (visitedCells.contains(currentCell.neigh[leftNeighbor])
-						&& (!visitedCells.contains(currentCell.neigh[frontNeighbor]) && (!currentCell.wall[frontNeighbor].present)))
+					if (isVisited(maze, context, currentCell.neigh[leftNeighbor])
+						&& (!isVisited(maze, context, currentCell.neigh[frontNeighbor]) && (!currentCell.wall[frontNeighbor].present)))
 						currentCell = currentCell.neigh[frontNeighbor];
 						
 					else {
@@ -97,19 +114,19 @@ public class WallFollowerSolver implements MazeSolver {
 						frontNeighbor = leftNeighbor;
 					}
 					maze.drawFtPrt(currentCell);
-					if (!visitedCells.contains(currentCell)) visitedCells.add(currentCell);
+					visit(maze, context, currentCell);
 					
 				} 
 				// if left neighbor has wall and front neighbor has no wall, go to front neighbor
 				else if (!currentCell.wall[frontNeighbor].present) {
 					// get out of loop
-					if (visitedCells.contains(currentCell.neigh[frontNeighbor]) && visitedCells.contains(currentCell.neigh[leftNeighbor])
-						&& (!visitedCells.contains(currentCell.neigh[rightNeighbor]) && (!currentCell.wall[rightNeighbor].present)))
+					if (isVisited(maze, context, currentCell.neigh[frontNeighbor]) && isVisited(maze, context, currentCell.neigh[leftNeighbor])
+						&& (!isVisited(maze, context, currentCell.neigh[rightNeighbor]) && (!currentCell.wall[rightNeighbor].present)))
 						frontNeighbor = rightNeighbor;
 					else {
 						currentCell = currentCell.neigh[frontNeighbor];
 						maze.drawFtPrt(currentCell);
-						if (!visitedCells.contains(currentCell)) visitedCells.add(currentCell);
+						visit(maze, context, currentCell);
 					}
 				} 
 				// left and front neighbor has walls change direction to right neighbor
@@ -121,7 +138,7 @@ public class WallFollowerSolver implements MazeSolver {
 
 		} // end of normal
 
-		else if (mMaze.type == HEX) {
+		else if (maze.type == HEX) {
 
 			while (currentCell != maze.exit) {
 				// set directions of front, left2, left and right neighbors
@@ -135,21 +152,21 @@ public class WallFollowerSolver implements MazeSolver {
 				if (!currentCell.wall[left2Neighbor].present) {
 					currentCell = currentCell.neigh[left2Neighbor];
 					maze.drawFtPrt(currentCell);
-					if (!visitedCells.contains(currentCell)) visitedCells.add(currentCell);
+					visit(maze, context, currentCell);
 					frontNeighbor = left2Neighbor;
 				} 
 				// if left2 neighbor has wall and left neighbor has no wall go to left neighbor
 				else if (!currentCell.wall[leftNeighbor].present) {
 						currentCell = currentCell.neigh[leftNeighbor];
 						maze.drawFtPrt(currentCell);
-						if (!visitedCells.contains(currentCell)) visitedCells.add(currentCell);
+						visit(maze, context, currentCell);
 						frontNeighbor = leftNeighbor;
 				} 
 				// if left and left2 neighbor has wall and front neighbor has no wall go to front neighbor
 				else if (!currentCell.wall[frontNeighbor].present) {
 					currentCell = currentCell.neigh[frontNeighbor];
 					maze.drawFtPrt(currentCell);
-					if (!visitedCells.contains(currentCell)) visitedCells.add(currentCell);
+					visit(maze, context, currentCell);
 				} 
 				// if left, left2 and front neighbor has walls change direction to right neighbor
 				else {
@@ -168,9 +185,29 @@ public class WallFollowerSolver implements MazeSolver {
 		return true;
 	} // end if isSolved()
 
+	/**
+	 * Mark a cell visited, if not visited before.
+	 */
+	private void visit(Maze maze, Context context, Cell cell) {
+		int id = maze.index(cell);
+		if (!context.visited.isReached(id)) {
+			context.visited.reach(id, 0);
+			context.cellsExplored++;
+		}
+	} // end of visit()
+
+
+	/**
+	 * @return True if the cell was visited by the current solve. Otherwise false, also for no cell.
+	 */
+	private boolean isVisited(Maze maze, Context context, Cell cell) {
+		return cell != null && context.visited.isReached(maze.index(cell));
+	} // end of isVisited()
+
+
 	@Override
 	public int cellsExplored() {
-		return visitedCells.size();
+		return contexts.get().cellsExplored;
 	} // end of cellsExplored()
 
 